@@ -16,6 +16,8 @@
  */
 package speck;
 
+import java.io.IOException;
+
 import speck.routematch.RouteMatch;
 
 /**
@@ -31,4 +33,16 @@ public final class Access {
         request.changeMatch(match);
     }
 
+    public static boolean isRedirected(Response response) {
+        return response.isRedirected();
+    }
+
+    public static boolean isStreamed(Response response) {
+        return response.isStreamed();
+    }
+
+    public static void closeStream(Response response) throws IOException {
+        response.closeStream();
+    }
+
 }
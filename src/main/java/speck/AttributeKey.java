@@ -0,0 +1,125 @@
+package speck;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A typed name for a request attribute, e.g. the user a filter authenticated and a route reads:
+ * <pre>{@code
+ * static final AttributeKey<User> USER = AttributeKey.of("user", User.class);
+ *
+ * before("/admin/*", (request, response) -> request.attribute(USER, authenticate(request)));
+ * get("/admin/me", (request, response) -> request.attribute(USER).name());
+ * }</pre>
+ * Each key gets its own slot when it is created, so a request keeps its attributes in an array and reading or
+ * writing one through its key is an index, without hashing the name or casting the value.
+ * <p>
+ * Keys are meant to be created once and kept in constants. There is one key per name: creating it again gives the
+ * same key, and the string attribute methods of {@link Request} go through it too.
+ *
+ * @param <T> the type of the attribute value
+ */
+public final class AttributeKey<T> {
+
+    private static final Lock LOCK = new ReentrantLock();
+    private static final Map<String, AttributeKey<?>> BY_NAME = new ConcurrentHashMap<>();
+    private static volatile AttributeKey<?>[] bySlot = new AttributeKey<?>[0];
+
+    private final String name;
+    private final Class<T> type;
+    private final int slot;
+
+    private AttributeKey(String name, Class<T> type, int slot) {
+        this.name = name;
+        this.type = type;
+        this.slot = slot;
+    }
+
+    /**
+     * Gets the key of an attribute, creating it the first time
+     *
+     * @param name the attribute name
+     * @param type the class of the attribute values, the wrapper class for primitive values
+     * @param <T>  the type of the attribute value
+     * @return the key
+     * @throws IllegalArgumentException if the type is primitive or the name already has a key of another type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AttributeKey<T> of(String name, Class<T> type) {
+        Objects.requireNonNull(name, "name cannot be null");
+        Objects.requireNonNull(type, "type cannot be null");
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("Attribute " + name + " must use the wrapper class of " + type.getName());
+        }
+        AttributeKey<?> key = BY_NAME.get(name);
+        if (key == null) {
+            LOCK.lock();
+            try {
+                key = BY_NAME.get(name);
+                if (key == null) {
+                    AttributeKey<?>[] keys = Arrays.copyOf(bySlot, bySlot.length + 1);
+                    key = new AttributeKey<>(name, type, keys.length - 1);
+                    keys[key.slot] = key;
+                    BY_NAME.put(name, key);
+                    bySlot = keys;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        if (key.type != type) {
+            throw new IllegalArgumentException("Attribute " + name + " already has a key of type " + key.type.getName());
+        }
+        return (AttributeKey<T>) key;
+    }
+
+    /**
+     * @param name the attribute name
+     * @return the key with that name, or null if none was created
+     */
+    static AttributeKey<?> named(String name) {
+        return BY_NAME.get(name);
+    }
+
+    /**
+     * @param slot the slot
+     * @return the key that has the slot
+     */
+    static AttributeKey<?> inSlot(int slot) {
+        return bySlot[slot];
+    }
+
+    /**
+     * @return the number of slots taken so far
+     */
+    static int slots() {
+        return bySlot.length;
+    }
+
+    /**
+     * @return the attribute name
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the class of the attribute values
+     */
+    public Class<T> type() {
+        return type;
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return "AttributeKey[" + name + ", " + type.getName() + "]";
+    }
+}
@@ -1,30 +1,26 @@
 package speck;
 
-import java.text.DateFormat;
-import java.text.FieldPosition;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.BitSet;
-import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
 
 public class CookieProcessor {
 
-    protected static final String ANCIENT_DATE;
     private static final CookieProcessor INSTANCE = new CookieProcessor();
-    private static final String COOKIE_DATE_PATTERN = "EEE, dd-MMM-yyyy HH:mm:ss z";
+    private static final String COOKIE_DATE_PATTERN = "EEE, dd-MMM-yyyy HH:mm:ss 'GMT'";
 
-    protected static final ThreadLocal<DateFormat> COOKIE_DATE_FORMAT = ThreadLocal.withInitial(() -> {
-        DateFormat df = new SimpleDateFormat(COOKIE_DATE_PATTERN, Locale.US);
-        df.setTimeZone(TimeZone.getTimeZone("GMT"));
-        return df;
-    });
+    // Immutable, so shared by all threads
+    protected static final DateTimeFormatter COOKIE_DATE_FORMAT =
+        DateTimeFormatter.ofPattern(COOKIE_DATE_PATTERN, Locale.US).withZone(ZoneOffset.UTC);
+    protected static final String ANCIENT_DATE = COOKIE_DATE_FORMAT.format(Instant.ofEpochSecond(10));
     private static final BitSet domainValid = new BitSet(128);
 
-    static {
-        ANCIENT_DATE = COOKIE_DATE_FORMAT.get().format(new Date(10000));
-    }
+    // Expires values by Max-Age, for the current second, see expires(int)
+    private static final int EXPIRES_CACHE_SIZE = 16;
+    private static final Expires[] EXPIRES_CACHE = new Expires[EXPIRES_CACHE_SIZE];
 
     private SameSiteCookies sameSiteCookies = SameSiteCookies.UNSET;
 
@@ -75,8 +71,9 @@ public class CookieProcessor {
 
     public String generateHeader(Cookie cookie) {
 
-        // Can't use StringBuilder due to DateFormat
-        StringBuffer header = new StringBuffer();
+        // Room for the name, the value and the common attributes, Expires being the longest
+        StringBuilder header = new StringBuilder(96 + length(cookie.getName()) + length(cookie.getValue())
+            + length(cookie.getDomain()) + length(cookie.getPath()));
 
         /*
          * TODO: Name validation takes place in Cookie and cannot be configured per Context. Moving it to here would
@@ -108,8 +105,7 @@ public class CookieProcessor {
             if (maxAge == 0) {
                 header.append(ANCIENT_DATE);
             } else {
-                COOKIE_DATE_FORMAT.get().format(new Date(System.currentTimeMillis() + maxAge * 1000L), header,
-                    new FieldPosition(0));
+                header.append(expires(maxAge));
             }
         }
 
@@ -175,6 +171,30 @@ public class CookieProcessor {
         return header.toString();
     }
 
+    /**
+     * The Expires value for a Max-Age, formatted once per second for the Max-Age values in use: all the cookies set
+     * within the same second with the same Max-Age expire at the same time.
+     */
+    private static String expires(int maxAge) {
+        long now = System.currentTimeMillis() / 1000;
+        int slot = maxAge & (EXPIRES_CACHE_SIZE - 1);
+        // Entries are immutable, so a slot read racing with an update sees either the old or the new one
+        Expires cached = EXPIRES_CACHE[slot];
+        if (cached != null && cached.second == now && cached.maxAge == maxAge) {
+            return cached.value;
+        }
+        String value = COOKIE_DATE_FORMAT.format(Instant.ofEpochSecond(now + maxAge));
+        EXPIRES_CACHE[slot] = new Expires(now, maxAge, value);
+        return value;
+    }
+
+    private record Expires(long second, int maxAge, String value) {
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
     private void validateCookieValue(String value) {
         int start = 0;
         int end = value.length();
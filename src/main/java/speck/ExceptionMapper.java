@@ -16,15 +16,19 @@
  */
 package speck;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ExceptionMapper {
 
     /**
      * Holds an exception mapper instance for use in servlet mode
      */
-    private static ExceptionMapper servletInstance;
+    private static volatile ExceptionMapper servletInstance;
+    private static final Lock SERVLET_INSTANCE_LOCK = new ReentrantLock();
 
     @Deprecated
     public static ExceptionMapper getInstance() {
@@ -36,23 +40,33 @@ public class ExceptionMapper {
      *
      * @return servlet instance
      */
-    public synchronized static ExceptionMapper getServletInstance() {
-        if (servletInstance == null) {
-            servletInstance = new ExceptionMapper();
+    public static ExceptionMapper getServletInstance() {
+        ExceptionMapper instance = servletInstance;
+        if (instance == null) {
+            SERVLET_INSTANCE_LOCK.lock();
+            try {
+                if (servletInstance == null) {
+                    servletInstance = new ExceptionMapper();
+                }
+                instance = servletInstance;
+            } finally {
+                SERVLET_INSTANCE_LOCK.unlock();
+            }
         }
-        return servletInstance;
+        return instance;
     }
 
     /**
-     * Holds a map of Exception classes and associated handlers
+     * Holds a map of Exception classes and associated handlers. Request threads add the handlers found for
+     * subclasses, and empty ones for exceptions without handler, so it's concurrent rather than locked.
      */
-    private Map<Class<? extends Exception>, ExceptionHandlerImpl> exceptionMap;
+    private final Map<Class<? extends Exception>, Optional<ExceptionHandlerImpl<?>>> exceptionMap;
 
     /**
      * Class constructor
      */
     public ExceptionMapper() {
-        this.exceptionMap = new HashMap<>();
+        this.exceptionMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -63,7 +77,7 @@ public class ExceptionMapper {
      * @param handler        Handler to map to exception
      */
     public void map(Class<? extends Exception> exceptionClass, ExceptionHandlerImpl handler) {
-        this.exceptionMap.put(exceptionClass, handler);
+        this.exceptionMap.put(exceptionClass, Optional.of(handler));
     }
 
     /**
@@ -73,33 +87,33 @@ public class ExceptionMapper {
      * @return Associated handler
      */
     public ExceptionHandlerImpl getHandler(Class<? extends Exception> exceptionClass) {
-        // If the exception map does not contain the provided exception class, it might
-        // still be that a superclass of the exception class is.
-        if (!this.exceptionMap.containsKey(exceptionClass)) {
-
-            Class<?> superclass = exceptionClass.getSuperclass();
-            do {
-                // Is the superclass mapped?
-                if (this.exceptionMap.containsKey(superclass)) {
-                    // Use the handler for the mapped superclass, and cache handler
-                    // for this exception class
-                    ExceptionHandlerImpl handler = this.exceptionMap.get(superclass);
-                    this.exceptionMap.put(exceptionClass, handler);
-                    return handler;
-                }
-
-                // Iteratively walk through the exception class's superclasses
-                superclass = superclass.getSuperclass();
-            } while (superclass != null);
-
-            // No handler found either for the superclasses of the exception class
-            // We cache the null value to prevent future
-            this.exceptionMap.put(exceptionClass, null);
-            return null;
+        Optional<ExceptionHandlerImpl<?>> cached = this.exceptionMap.get(exceptionClass);
+        if (cached != null) {
+            // Direct map
+            return cached.orElse(null);
         }
 
-        // Direct map
-        return this.exceptionMap.get(exceptionClass);
+        // If the exception map does not contain the provided exception class, it might
+        // still be that a superclass of the exception class is.
+        Class<?> superclass = exceptionClass.getSuperclass();
+        do {
+            // Is the superclass mapped?
+            Optional<ExceptionHandlerImpl<?>> handler = this.exceptionMap.get(superclass);
+            if (handler != null && handler.isPresent()) {
+                // Use the handler for the mapped superclass, and cache handler
+                // for this exception class
+                this.exceptionMap.put(exceptionClass, handler);
+                return handler.get();
+            }
+
+            // Iteratively walk through the exception class's superclasses
+            superclass = superclass.getSuperclass();
+        } while (superclass != null);
+
+        // No handler found either for the superclasses of the exception class
+        // We cache the empty value to prevent future lookups
+        this.exceptionMap.put(exceptionClass, Optional.empty());
+        return null;
     }
 
     /**
@@ -1,12 +1,11 @@
 package speck;
 
 import com.sun.net.httpserver.HttpExchange;
+import speck.utils.urldecoding.UrlEncodedParams;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * These objects represent the parameters sent on a Http Request. <br>
@@ -33,11 +32,6 @@ public class QueryParamsMap {
 
     private static final QueryParamsMap NULL = new NullQueryParamsMap();
 
-    /**
-     * Pattern for parsing the key of querystring
-     */
-    private static final Pattern KEY_PATTERN = Pattern.compile("\\A[\\[\\]]*([^\\[\\]]+)\\]*");
-
     /**
      * Holds the nested keys
      */
@@ -49,17 +43,16 @@ public class QueryParamsMap {
     private String[] values;
 
     /**
-     * Creates a new QueryParamsMap from an HttpServletRequest. <br>
-     * Parses the parameters from request.getParameterMap() <br>
-     * No need to decode, since HttpServletRequest does it for us.
+     * Creates a new QueryParamsMap from an HttpExchange. <br>
+     * Parses and decodes the parameters of the query string of the request URI.
      *
-     * @param request the servlet request
+     * @param request the exchange
      */
     public QueryParamsMap(HttpExchange request) {
         if (request == null) {
-            throw new IllegalArgumentException("HttpServletRequest cannot be null.");
+            throw new IllegalArgumentException("HttpExchange cannot be null.");
         }
-        //loadQueryString(request.getParameterMap());
+        loadQueryString(UrlEncodedParams.parse(request.getRequestURI().getRawQuery()).toMap());
     }
 
     // Just for testing
@@ -123,14 +116,34 @@ public class QueryParamsMap {
         }
     }
 
+    /**
+     * Splits the first key off a nested key: user[name][more] gives user and [name][more], [name][more] gives name
+     * and [more]. Brackets before the first key, and closing ones after it, are skipped.
+     *
+     * @param key the nested key
+     * @return the first key and the rest, or null if there is no key
+     */
     protected final String[] parseKey(String key) {
-        Matcher m = KEY_PATTERN.matcher(key);
-
-        if (m.find()) {
-            return new String[] {cleanKey(m.group()), key.substring(m.end())};
-        } else {
+        int length = key.length();
+        int start = 0;
+        while (start < length && isBracket(key.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < length && !isBracket(key.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
             return null; // NOSONAR
         }
+        while (end < length && key.charAt(end) == ']') {
+            end++;
+        }
+        return new String[] {cleanKey(key.substring(0, end)), key.substring(end)};
+    }
+
+    private static boolean isBracket(char c) {
+        return c == '[' || c == ']';
     }
 
     protected static final String cleanKey(String group) {
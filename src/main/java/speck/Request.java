@@ -18,20 +18,24 @@ package speck;
 
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
+import speck.route.RoutePattern;
 import speck.routematch.RouteMatch;
-import speck.utils.CollectionUtils;
 import speck.utils.IOUtils;
-import speck.utils.SpeckUtils;
 import speck.utils.StringUtils;
 import speck.utils.urldecoding.UrlDecode;
+import speck.utils.urldecoding.UrlEncodedParams;
 
-import java.io.UnsupportedEncodingException;
-import java.net.HttpCookie;
 import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -46,10 +50,13 @@ public class Request {
     ;
 
     private static final String USER_AGENT = "user-agent";
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
 
-    private Map<String, String> params;
-    private List<String> splat;
-    private QueryParamsMap queryMap;
+    private static final int[] NO_CAPTURES = new int[0];
+
+    private RoutePattern pattern;
+    private String requestUri;
+    private int[] captures = NO_CAPTURES;
 
     private HttpExchange httpExchange;
 
@@ -61,7 +68,19 @@ public class Request {
     private String body = null;
     private byte[] bodyAsBytes = null;
 
+    // Decoded on first access, per slot, and dropped when the match changes
+    private String[] values = null;
+    private Map<String, String> params = null;
+    private String[] splat = null;
+
     private Set<String> headers = null;
+    private ServerCookies cookies = null;
+    private UrlEncodedParams query = null;
+    private QueryParamsMap queryMap = null;
+
+    // Attributes with an AttributeKey, by slot, and the others by name
+    private Object[] slotAttributes = null;
+    private Map<String, Object> namedAttributes = null;
 
     //    request.body              # request body sent by the client (see below), DONE
     //    request.scheme            # "http"                                DONE
@@ -109,73 +128,60 @@ public class Request {
      */
     Request(HttpExchange request) {
         this.httpExchange = request;
-
-        // Empty
-        params = new HashMap<>();
-        splat = new ArrayList<>();
     }
 
-    private static Map<String, String> getParams(List<String> request, List<String> matched) {
-        Map<String, String> params = new HashMap<>();
-
-        for (int i = 0; (i < request.size()) && (i < matched.size()); i++) {
-            String matchedPart = matched.get(i);
-
-            if (SpeckUtils.isParam(matchedPart)) {
-
-                String decodedReq = UrlDecode.path(request.get(i));
-
-                LOG.log(System.Logger.Level.DEBUG, "matchedPart: "
-                    + matchedPart
-                    + " = "
-                    + decodedReq);
-
-                params.put(matchedPart.toLowerCase(), decodedReq);
-            }
-        }
-        return Collections.unmodifiableMap(params);
+    /**
+     * Points this request at another match. Only the match is kept, params and splat are decoded when first read.
+     *
+     * @param match the route match
+     */
+    protected void changeMatch(RouteMatch match) {
+        this.matchedPath = match.getMatchUri();
+        this.requestUri = match.getRequestURI();
+        this.pattern = match.getPattern();
+        this.captures = match.getCaptures();
+        this.values = null;
+        this.params = null;
+        this.splat = null;
     }
 
-    private static List<String> getSplat(List<String> request, List<String> matched) {
-        int nbrOfRequestParts = request.size();
-        int nbrOfMatchedParts = matched.size();
-
-        boolean sameLength = (nbrOfRequestParts == nbrOfMatchedParts);
-
-        List<String> splat = new ArrayList<>();
-
-        for (int i = 0; (i < nbrOfRequestParts) && (i < nbrOfMatchedParts); i++) {
-
-            String matchedPart = matched.get(i);
-
-            if (SpeckUtils.isSplat(matchedPart)) {
-
-                StringBuilder splatParam = new StringBuilder(request.get(i));
+    private int slotCount() {
+        return pattern == null ? 0 : pattern.slotCount();
+    }
 
-                if (!sameLength && (i == (nbrOfMatchedParts - 1))) {
-                    for (int j = i + 1; j < nbrOfRequestParts; j++) {
-                        splatParam.append("/");
-                        splatParam.append(request.get(j));
-                    }
-                }
-                try {
-                    String decodedSplat = URLDecoder.decode(splatParam.toString(), "UTF-8");
-                    splat.add(decodedSplat);
-                } catch (UnsupportedEncodingException e) {
-                }
-            }
+    /**
+     * @param slot the capture slot
+     * @return the decoded value of the slot, or null if the requested path doesn't reach it
+     */
+    private String value(int slot) {
+        if (values == null) {
+            values = new String[pattern.slotCount()];
         }
-
-        return Collections.unmodifiableList(splat);
+        String value = values[slot];
+        if (value == null) {
+            value = decode(slot);
+            values[slot] = value;
+        }
+        return value;
     }
 
-    protected void changeMatch(RouteMatch match) {
-        List<String> requestList = SpeckUtils.convertRouteToList(match.getRequestURI());
-        List<String> matchedList = SpeckUtils.convertRouteToList(match.getMatchUri());
-
-        this.matchedPath = match.getMatchUri();
-        params = getParams(requestList, matchedList);
-        splat = getSplat(requestList, matchedList);
+    private String decode(int slot) {
+        String captured = RoutePattern.captured(requestUri, captures, slot);
+        if (captured == null) {
+            return null;
+        }
+        String paramName = pattern.paramName(slot);
+        if (paramName == null) {
+            return URLDecoder.decode(captured, StandardCharsets.UTF_8);
+        }
+        String decoded = UrlDecode.path(captured);
+        if (LOG.isLoggable(System.Logger.Level.DEBUG)) {
+            LOG.log(System.Logger.Level.DEBUG, "matchedPart: "
+                + paramName
+                + " = "
+                + decoded);
+        }
+        return decoded;
     }
 
     /**
@@ -184,7 +190,20 @@ public class Request {
      * @return a map containing all route params
      */
     public Map<String, String> params() {
-        return Collections.unmodifiableMap(params);
+        if (params == null) {
+            Map<String, String> byName = new HashMap<>();
+            for (int slot = 0; slot < slotCount(); slot++) {
+                String paramName = pattern.paramName(slot);
+                if (paramName != null) {
+                    String value = value(slot);
+                    if (value != null) {
+                        byName.put(paramName, value);
+                    }
+                }
+            }
+            params = Collections.unmodifiableMap(byName);
+        }
+        return params;
     }
 
     /**
@@ -195,22 +214,37 @@ public class Request {
      * @return null if the given param is null or not found
      */
     public String params(String param) {
-        if (param == null) {
+        if (param == null || pattern == null) {
             return null;
         }
 
-        if (param.startsWith(":")) {
-            return params.get(param.toLowerCase()); // NOSONAR
-        } else {
-            return params.get(":" + param.toLowerCase()); // NOSONAR
+        // Last one wins, unless the requested path is too short to reach it
+        for (int slot = pattern.paramSlot(param); slot >= 0; slot = pattern.paramSlot(param, slot - 1)) {
+            String value = value(slot);
+            if (value != null) {
+                return value;
+            }
         }
+        return null;
     }
 
     /**
      * @return an array containing the splat (wildcard) parameters
      */
     public String[] splat() {
-        return splat.toArray(new String[0]);
+        if (splat == null) {
+            List<String> wildcards = new ArrayList<>();
+            for (int slot = 0; slot < slotCount(); slot++) {
+                if (pattern.paramName(slot) == null) {
+                    String value = value(slot);
+                    if (value != null) {
+                        wildcards.add(value);
+                    }
+                }
+            }
+            splat = wildcards.toArray(new String[0]);
+        }
+        return splat.clone();
     }
 
     /**
@@ -342,15 +376,15 @@ public class Request {
     }
 
     /**
-     * Gets the query param
+     * Gets the query param. The fields of a url encoded form body, posted or put, count as query params too, after
+     * the ones of the query string.
      *
      * @param queryParam the query parameter
      * @return the value of the provided queryParam
      * Example: query parameter 'id' from the following request URI: /hello?id=foo
      */
     public String queryParams(String queryParam) {
-        List<String> strings = UrlDecode.splitQuery(httpExchange.getRequestURI().getQuery()).get(queryParam);
-        return CollectionUtils.isEmpty(strings) ? null : strings.get(0);
+        return query().value(queryParam);
     }
 
     /**
@@ -385,7 +419,7 @@ public class Request {
      * @return the values of the provided queryParam, null if it doesn't exists
      */
     public String[] queryParamsValues(String queryParam) {
-        return UrlDecode.splitQuery(httpExchange.getRequestURI().getQuery()).get(queryParam).toArray(new String[]{});
+        return query().values(queryParam);
     }
 
     /**
@@ -402,7 +436,42 @@ public class Request {
      * @return all query parameters
      */
     public Set<String> queryParams() {
-        return UrlDecode.splitQuery(httpExchange.getRequestURI().getQuery()).keySet();
+        return query().names();
+    }
+
+    // Parsed once, on first use, from the raw query so that encoded '&' and '=' stay part of the values. As in
+    // servlet containers, the fields of a url encoded POST or PUT body follow, parsed from the body bytes
+    private UrlEncodedParams query() {
+        if (query == null) {
+            UrlEncodedParams fromUri = UrlEncodedParams.parse(httpExchange.getRequestURI().getRawQuery());
+            String contentType = contentType();
+            if (isFormMethod() && contentType != null
+                    && contentType.regionMatches(true, 0, FORM_CONTENT_TYPE, 0, FORM_CONTENT_TYPE.length())) {
+                query = UrlEncodedParams.merge(fromUri, UrlEncodedParams.parse(bodyAsBytes(), charset(contentType)));
+            } else {
+                query = fromUri;
+            }
+        }
+        return query;
+    }
+
+    private boolean isFormMethod() {
+        String method = httpExchange.getRequestMethod();
+        return "POST".equalsIgnoreCase(method) || "PUT".equalsIgnoreCase(method);
+    }
+
+    private static Charset charset(String contentType) {
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index >= 0) {
+            int end = contentType.indexOf(';', index);
+            String name = contentType.substring(index + "charset=".length(), end < 0 ? contentType.length() : end);
+            try {
+                return Charset.forName(name.replace("\"", "").trim());
+            } catch (IllegalArgumentException e) {
+                // Unknown charset, as if there was none
+            }
+        }
+        return StandardCharsets.UTF_8;
     }
 
     /**
@@ -426,10 +495,21 @@ public class Request {
      * Sets an attribute on the request (can be fetched in filters/routes later in the chain)
      *
      * @param attribute The attribute
-     * @param value     The attribute value
+     * @param value     The attribute value, null to remove it
+     * @throws ClassCastException if the attribute has an {@link AttributeKey} and the value is not of its type
      */
     public void attribute(String attribute, Object value) {
-        httpExchange.setAttribute(attribute, value);
+        AttributeKey<?> key = AttributeKey.named(attribute);
+        if (key != null) {
+            store(key, key.type().cast(value));
+        } else if (value != null) {
+            if (namedAttributes == null) {
+                namedAttributes = new LinkedHashMap<>();
+            }
+            namedAttributes.put(attribute, value);
+        } else if (namedAttributes != null) {
+            namedAttributes.remove(attribute);
+        }
     }
 
     /**
@@ -441,14 +521,66 @@ public class Request {
      */
     @SuppressWarnings("unchecked")
     public <T> T attribute(String attribute) {
-        return (T) httpExchange.getAttribute(attribute);
+        AttributeKey<?> key = AttributeKey.named(attribute);
+        if (key != null) {
+            return (T) attribute(key);
+        }
+        return namedAttributes == null ? null : (T) namedAttributes.get(attribute);
+    }
+
+    /**
+     * Sets an attribute on the request (can be fetched in filters/routes later in the chain)
+     *
+     * @param key   The attribute key
+     * @param value The attribute value, null to remove it
+     * @param <T>   the type of the attribute value
+     */
+    public <T> void attribute(AttributeKey<T> key, T value) {
+        store(key, value);
+    }
+
+    /**
+     * Gets the value of the provided attribute
+     *
+     * @param key The attribute key
+     * @param <T> the type of the attribute value
+     * @return the value for the provided attribute or null if not present
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T attribute(AttributeKey<T> key) {
+        int slot = key.slot();
+        return slotAttributes != null && slot < slotAttributes.length ? (T) slotAttributes[slot] : null;
     }
 
     /**
-     * @return all attributes
+     * @return the names of the attributes set on this request
      */
     public Set<String> attributes() {
-        return Set.copyOf(httpExchange.getHttpContext().getAttributes().keySet());
+        Set<String> names = new LinkedHashSet<>();
+        if (slotAttributes != null) {
+            for (int slot = 0; slot < slotAttributes.length; slot++) {
+                if (slotAttributes[slot] != null) {
+                    names.add(AttributeKey.inSlot(slot).name());
+                }
+            }
+        }
+        if (namedAttributes != null) {
+            names.addAll(namedAttributes.keySet());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    private void store(AttributeKey<?> key, Object value) {
+        int slot = key.slot();
+        if (slotAttributes == null || slot >= slotAttributes.length) {
+            if (value == null) {
+                return;
+            }
+            // Room for every key created so far, so that later attributes don't grow it again
+            int length = Math.max(AttributeKey.slots(), slot + 1);
+            slotAttributes = slotAttributes == null ? new Object[length] : Arrays.copyOf(slotAttributes, length);
+        }
+        slotAttributes[slot] = value;
     }
 
     /**
@@ -477,7 +609,7 @@ public class Request {
 
     private void initQueryMap() {
         if (queryMap == null) {
-            queryMap = new QueryParamsMap(raw());
+            queryMap = new QueryParamsMap(query().toMap());
         }
     }
 
@@ -485,20 +617,8 @@ public class Request {
      * @return request cookies (or empty Map if cookies aren't present)
      */
     public Map<String, String> cookies() {
-        String cookieHeaderValue = getFirstHeaderValueOrNull("Cookie");
-        if (cookieHeaderValue == null || cookieHeaderValue.length() == 0) {
-            return Map.of();
-        }
-        List<HttpCookie> httpCookies = HttpCookie.parse(cookieHeaderValue);
-
-        var result = new HashMap<String, String>();
-
-        if (httpCookies != null) {
-            for (var cookie : httpCookies) {
-                result.put(cookie.getName(), cookie.getValue());
-            }
-        }
-        return result;
+        ServerCookies serverCookies = parsedCookies();
+        return serverCookies.size() == 0 ? Map.of() : serverCookies.toMap();
     }
 
     /**
@@ -508,19 +628,21 @@ public class Request {
      * @return cookie value or null if the cookie was not found
      */
     public String cookie(String name) {
-        String cookieHeaderValue = getFirstHeaderValueOrNull("Cookie");
-        if (cookieHeaderValue == null || cookieHeaderValue.length() == 0) {
-            return null;
-        }
-        List<HttpCookie> httpCookies = HttpCookie.parse(cookieHeaderValue);
-        if (httpCookies != null) {
-            for (var cookie : httpCookies) {
-                if (cookie.getName().equals(name)) {
-                    return cookie.getValue();
-                }
+        return parsedCookies().value(name);
+    }
+
+    // The Cookie header is parsed once, the first time a cookie is read. HTTP/2 clients may split it in several
+    private ServerCookies parsedCookies() {
+        if (cookies == null) {
+            Headers requestHeaders = httpExchange.getRequestHeaders();
+            List<String> cookieHeaders = requestHeaders != null ? requestHeaders.get("Cookie") : null;
+            if (cookieHeaders == null || cookieHeaders.isEmpty()) {
+                cookies = ServerCookies.NONE;
+            } else {
+                cookies = ServerCookies.parse(cookieHeaders.size() == 1 ? cookieHeaders.get(0) : String.join("; ", cookieHeaders));
             }
         }
-        return null;
+        return cookies;
     }
 
     /**
@@ -21,6 +21,10 @@ import com.sun.net.httpserver.HttpExchange;
 import speck.embeddedserver.jdkserver.HttpExchangeWrapper;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
@@ -39,6 +43,9 @@ public class Response {
 
     private HttpExchange httpExchange;
     private String body;
+    private boolean redirected;
+    private ResponseOutputStream outputStream;
+    private PrintWriter writer;
 
     protected Response() {
         // Used by wrapper
@@ -105,6 +112,56 @@ public class Response {
         return this.body;
     }
 
+    /**
+     * Returns a stream to write the body directly, for bodies too big to build in memory.
+     * The status and headers are sent on the first write or flush, as they are at that moment, and the body is
+     * sent in chunked mode, gzipped if a Content-Encoding: gzip header is set and the client accepts it.
+     * <p>
+     * Once a route or filter asked for the stream, the value returned by the route and any body set through
+     * {@link #body(String)} are ignored. After filters still run and may write to the stream, but status and
+     * header changes made after the first write are not sent. Speck closes the stream after the afterAfter filters.
+     *
+     * @return the response body stream, the same one on every call
+     */
+    public OutputStream outputStream() {
+        if (outputStream == null) {
+            outputStream = new ResponseOutputStream(httpExchange);
+        }
+        return outputStream;
+    }
+
+    /**
+     * Returns a UTF-8 writer on top of {@link #outputStream()}, same rules apply.
+     * Writes are buffered by the writer, call flush to send what was written so far.
+     *
+     * @return the response body writer, the same one on every call
+     */
+    public PrintWriter writer() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(outputStream(), StandardCharsets.UTF_8));
+        }
+        return writer;
+    }
+
+    /**
+     * @return true if the body is written through {@link #outputStream()} or {@link #writer()}
+     */
+    boolean isStreamed() {
+        return outputStream != null;
+    }
+
+    /**
+     * Flushes and closes the body stream, sending the headers if nothing was written.
+     *
+     * @throws IOException in case of IO error
+     */
+    void closeStream() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        outputStream.close();
+    }
+
     /**
      * @return the raw response object handed in by Jetty
      */
@@ -128,6 +185,7 @@ public class Response {
      * @param httpStatusCode the http status code
      */
     public void redirect(String location, int httpStatusCode) {
+        redirected = true;
         if (LOG.isLoggable(System.Logger.Level.DEBUG)) {
             LOG.log(System.Logger.Level.DEBUG, "Redirecting {0} to {1}", httpStatusCode, location);
         }
@@ -147,6 +205,13 @@ public class Response {
         }
     }
 
+    /**
+     * @return true if a redirect has been triggered
+     */
+    boolean isRedirected() {
+        return redirected;
+    }
+
     /**
      * Adds/Sets a response header
      *
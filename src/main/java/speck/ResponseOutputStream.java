@@ -0,0 +1,83 @@
+package speck;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import speck.embeddedserver.jdkserver.ResponseBodyStream;
+import speck.staticfiles.MimeType;
+import speck.utils.GzipUtils;
+
+/**
+ * The stream handed out by {@link Response#outputStream()}. Nothing is sent until the first write or flush, which
+ * commits the status and headers as they are at that moment, then the body is streamed in chunked mode.
+ * Gzip is applied the same way as for serialized bodies, i.e. if a Content-Encoding: gzip header is set and
+ * the client accepts it.
+ */
+final class ResponseOutputStream extends OutputStream {
+
+    private final HttpExchange httpExchange;
+
+    private OutputStream out;
+    private boolean closed;
+
+    ResponseOutputStream(HttpExchange httpExchange) {
+        this.httpExchange = httpExchange;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out().flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            OutputStream stream = out();
+            closed = true;
+            stream.close();
+        }
+    }
+
+    /**
+     * @return true once the status and headers were sent
+     */
+    boolean isCommitted() {
+        return out != null;
+    }
+
+    private OutputStream out() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (out == null) {
+            int responseCode = httpExchange.getResponseCode() == -1 ? 200 : httpExchange.getResponseCode();
+            if (httpExchange.getResponseHeaders().get("Content-Type") == null && MimeType.shouldGuess()) {
+                httpExchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            }
+
+            if ("HEAD".equals(httpExchange.getRequestMethod())) {
+                // Same headers as for GET, but no body
+                httpExchange.sendResponseHeaders(responseCode, -1);
+                httpExchange.getResponseBody().close();
+                out = OutputStream.nullOutputStream();
+            } else if (GzipUtils.checkGzip(httpExchange, true)) {
+                out = new GZIPOutputStream(new ResponseBodyStream(httpExchange, responseCode, -1, 0), true);
+            } else {
+                out = new ResponseBodyStream(httpExchange, responseCode, -1, 0);
+            }
+        }
+        return out;
+    }
+}
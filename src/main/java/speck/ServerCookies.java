@@ -0,0 +1,144 @@
+package speck;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The cookies of a request, parsed from its Cookie header as RFC 6265 describes it:
+ * {@code name=value; name2="value2"}.
+ * <p>
+ * The header is split once, keeping where each name and value is, and a value is only cut out of the header when it
+ * is read. Whitespace around names and values, and double quotes around values, are dropped. Parts without '=' are
+ * skipped. When a name comes more than once, the first one counts, as the most specific path is sent first.
+ * <p>
+ * Not thread safe, meant to be used by a single request.
+ */
+final class ServerCookies {
+
+    static final ServerCookies NONE = new ServerCookies("", new int[0], 0);
+
+    private final String header;
+    // name start, name end, value start and value end of each cookie
+    private final int[] bounds;
+    private final int count;
+    private String[] values;
+
+    private ServerCookies(String header, int[] bounds, int count) {
+        this.header = header;
+        this.bounds = bounds;
+        this.count = count;
+    }
+
+    /**
+     * @param header the value of the Cookie header, can be null
+     * @return the cookies in the header
+     */
+    static ServerCookies parse(String header) {
+        if (header == null || header.isEmpty()) {
+            return NONE;
+        }
+        int length = header.length();
+        int[] bounds = new int[16 * 4];
+        int count = 0;
+        int i = 0;
+        while (i < length) {
+            while (i < length && (isWhitespace(header.charAt(i)) || header.charAt(i) == ';')) {
+                i++;
+            }
+            int nameStart = i;
+            while (i < length && header.charAt(i) != '=' && header.charAt(i) != ';') {
+                i++;
+            }
+            if (i == length || header.charAt(i) == ';') {
+                // Not a name=value pair
+                continue;
+            }
+            int nameEnd = trimEnd(header, nameStart, i);
+
+            i++;
+            while (i < length && isWhitespace(header.charAt(i))) {
+                i++;
+            }
+            int valueStart = i;
+            while (i < length && header.charAt(i) != ';') {
+                i++;
+            }
+            int valueEnd = trimEnd(header, valueStart, i);
+            if (valueEnd - valueStart > 1 && header.charAt(valueStart) == '"' && header.charAt(valueEnd - 1) == '"') {
+                valueStart++;
+                valueEnd--;
+            }
+
+            if (nameEnd > nameStart) {
+                if (count * 4 == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                bounds[count * 4] = nameStart;
+                bounds[count * 4 + 1] = nameEnd;
+                bounds[count * 4 + 2] = valueStart;
+                bounds[count * 4 + 3] = valueEnd;
+                count++;
+            }
+        }
+        return count == 0 ? NONE : new ServerCookies(header, bounds, count);
+    }
+
+    /**
+     * @return the number of cookies, counting repeated names
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Finds a cookie by comparing the name with the header in place, without building a map.
+     *
+     * @param name the cookie name
+     * @return the value of the first cookie with that name, or null if there is none
+     */
+    String value(String name) {
+        int length = name.length();
+        for (int i = 0; i < count; i++) {
+            int nameStart = bounds[i * 4];
+            if (bounds[i * 4 + 1] - nameStart == length && header.startsWith(name, nameStart)) {
+                return value(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the cookies by name, the first value of each name
+     */
+    Map<String, String> toMap() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            map.putIfAbsent(header.substring(bounds[i * 4], bounds[i * 4 + 1]), value(i));
+        }
+        return map;
+    }
+
+    private String value(int index) {
+        if (values == null) {
+            values = new String[count];
+        }
+        String value = values[index];
+        if (value == null) {
+            value = header.substring(bounds[index * 4 + 2], bounds[index * 4 + 3]);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static int trimEnd(String header, int start, int end) {
+        while (end > start && isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -19,12 +19,16 @@ package speck;
 import speck.embeddedserver.EmbeddedServer;
 import speck.embeddedserver.EmbeddedServers;
 import speck.route.HttpMethod;
+import speck.route.RouteMatchCache;
 import speck.route.Routes;
 import speck.routematch.RouteMatch;
+import speck.serialization.Serializer;
+import speck.serialization.SerializerChain;
 import speck.ssl.SslStores;
 import speck.staticfiles.MimeType;
 import speck.staticfiles.StaticFilesConfiguration;
 
+import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.List;
@@ -52,18 +56,21 @@ public final class Service extends Routable {
     public final StaticFiles staticFiles;
     private final StaticFilesConfiguration staticFilesConfiguration;
     private final ExceptionMapper exceptionMapper = new ExceptionMapper();
-    protected boolean initialized = false;
-    protected int port = SPECK_DEFAULT_PORT;
+    private final SerializerChain serializerChain = new SerializerChain();
+    // Read without holding the monitor by the accessors that may be called while serving requests
+    protected volatile boolean initialized = false;
+    protected volatile int port = SPECK_DEFAULT_PORT;
     protected String ipAddress = "0.0.0.0";
     protected SslStores sslStores;
     protected Executor executor = null;
 
-    protected EmbeddedServer server;
+    protected volatile EmbeddedServer server;
     protected Deque<String> pathDeque = new ArrayDeque<>();
-    protected Routes routes;
+    protected volatile Routes routes;
+    protected int routeMatchCacheSize = 0;
     private CountDownLatch initLatch = new CountDownLatch(1);
     private CountDownLatch stopLatch = new CountDownLatch(0);
-    private Object embeddedServerIdentifier = EmbeddedServers.defaultIdentifier();
+    private volatile Object embeddedServerIdentifier = EmbeddedServers.defaultIdentifier();
     // default exception handler during initialization phase
     private Consumer<Exception> initExceptionHandler = (e) -> {
         LOG.log(System.Logger.Level.ERROR, "ignite failed", e);
@@ -103,7 +110,7 @@ public final class Service extends Routable {
      * Get the identifier used to select the EmbeddedServer;
      * null for the default.
      */
-    public synchronized Object embeddedServerIdentifier() {
+    public Object embeddedServerIdentifier() {
         return embeddedServerIdentifier;
     }
 
@@ -146,7 +153,7 @@ public final class Service extends Routable {
      * @return The port Speck server is listening on.
      * @throws IllegalStateException when the server is not started
      */
-    public synchronized int port() {
+    public int port() {
         if (initialized) {
             return port;
         } else {
@@ -154,6 +161,36 @@ public final class Service extends Routable {
         }
     }
 
+    /**
+     * Caches the matched filters and route of up to maxSize distinct requests (http method, path and
+     * Accept header), so requests to hot paths skip route matching. Disabled by default.
+     * The cache is emptied whenever routes are mapped or unmapped. This has to be called before any
+     * route mapping is done.
+     *
+     * @param maxSize the maximum number of cached requests, 0 disables the cache
+     * @return the object with the route match cache size set
+     */
+    public synchronized Service routeMatchCache(int maxSize) {
+        if (initialized) {
+            throwBeforeRouteMappingException();
+        }
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.routeMatchCacheSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Retrieves the route match cache, e.g. to check its hit and miss counters.
+     *
+     * @return the route match cache, null if not enabled or route mapping has not begun
+     */
+    public RouteMatchCache routeMatchCache() {
+        Routes routes = this.routes;
+        return routes != null ? routes.matchCache() : null;
+    }
+
     /**
      * Set the connection to be secure, using the specified keystore and
      * truststore. This has to be called before any route mapping is done. You
@@ -438,6 +475,7 @@ public final class Service extends Routable {
 
             routes.clear();
             exceptionMapper.clear();
+            serializerChain.clear();
             staticFilesConfiguration.clear();
             initialized = false;
             stopLatch.countDown();
@@ -466,6 +504,25 @@ public final class Service extends Routable {
         pathDeque.removeLast();
     }
 
+    /**
+     * Maps all the routes and filters declared in the routeGroup at once.
+     * Requests keep being served by the previous routes until the routeGroup is done,
+     * and the route table is rebuilt once instead of after every route, which matters when mapping
+     * thousands of routes or changing routes of a running server, for example:
+     * batch(() -> {
+     * ....unmap("/api/v1/users");
+     * ....get("/api/v2/users",  UserApi::list);
+     * ....etc
+     * });
+     * batch() and path() calls can be nested in each other.
+     *
+     * @param routeGroup group of routes (can also contain path() and unmap() calls)
+     */
+    public void batch(RouteGroup routeGroup) {
+        init();
+        routes.batch(routeGroup::addRoutes);
+    }
+
     public String getPaths() {
         return pathDeque.stream().collect(Collectors.joining(""));
     }
@@ -489,7 +546,14 @@ public final class Service extends Routable {
         routes.add(httpMethod, filter.withPrefix(getPaths()));
     }
 
-    public synchronized void init() {
+    public void init() {
+        // Routes are mapped through here, also by running routes, so only the first call takes the monitor
+        if (!initialized) {
+            initialize();
+        }
+    }
+
+    private synchronized void initialize() {
         if (!initialized) {
 
             initializeRouteMatcher();
@@ -506,6 +570,7 @@ public final class Service extends Routable {
                     server = EmbeddedServers.create(embeddedServerIdentifier,
                         routes,
                         exceptionMapper,
+                        serializerChain,
                         staticFilesConfiguration,
                         false);
 
@@ -532,12 +597,14 @@ public final class Service extends Routable {
 
     private void initializeRouteMatcher() {
         routes = Routes.create();
+        routes.matchCache(routeMatchCacheSize);
     }
 
     /**
      * @return The approximate number of currently active threads in the embedded Jetty server
      */
-    public synchronized int activeThreadCount() {
+    public int activeThreadCount() {
+        EmbeddedServer server = this.server;
         if (server != null) {
             return server.activeThreadCount();
         }
@@ -566,6 +633,45 @@ public final class Service extends Routable {
         exceptionMapper.map(exceptionClass, wrapper);
     }
 
+    //////////////////////////////////////////////////
+    // SERIALIZERS
+    //////////////////////////////////////////////////
+
+    /**
+     * Registers a serializer for the route results of the given class and its subclasses, e.g. to write records
+     * as JSON. It's picked before the built-in serializers and before the ones registered later.
+     *
+     * @param type       the class of the route results
+     * @param serializer the serializer
+     */
+    public synchronized void serializer(Class<?> type, Serializer serializer) {
+        serializerChain.register(type, null, serializer);
+    }
+
+    /**
+     * Registers a serializer for the route results of the given class and its subclasses, used only if the
+     * response has the given media type or no Content-Type at all, in which case it gets this one.
+     *
+     * @param type        the class of the route results
+     * @param contentType the media type the serializer produces, e.g. 'application/json'
+     * @param serializer  the serializer
+     */
+    public synchronized void serializer(Class<?> type, String contentType, Serializer serializer) {
+        serializerChain.register(type, contentType, serializer);
+    }
+
+    /**
+     * Sets how often route results written bit by bit, like the elements of a Stream, are flushed to the client.
+     * 200 ms by default.
+     *
+     * @param interval the minimum time between two flushes, zero flushes after every element
+     * @return the object with the flush interval set
+     */
+    public synchronized Service streamFlushInterval(Duration interval) {
+        serializerChain.flushInterval(interval);
+        return this;
+    }
+
     //////////////////////////////////////////////////
     // HALT methods
     //////////////////////////////////////////////////
@@ -16,8 +16,11 @@
  */
 package speck;
 
+import speck.route.RouteMatchCache;
 import speck.routematch.RouteMatch;
+import speck.serialization.Serializer;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.function.Consumer;
@@ -88,6 +91,17 @@ public class Speck {
         getInstance().path(path, routeGroup);
     }
 
+    /**
+     * Maps all the routes and filters declared in the routeGroup at once.
+     * Requests keep being served by the previous routes until the routeGroup is done,
+     * and the route table is rebuilt once instead of after every route.
+     *
+     * @param routeGroup group of routes (can also contain path() and unmap() calls)
+     */
+    public static void batch(RouteGroup routeGroup) {
+        getInstance().batch(routeGroup);
+    }
+
     /**
      * Map the route for HTTP GET requests
      *
@@ -913,6 +927,43 @@ public class Speck {
         getInstance().exception(exceptionClass, handler);
     }
 
+    //////////////////////////////////////////////////
+    // SERIALIZERS
+    //////////////////////////////////////////////////
+
+    /**
+     * Registers a serializer for the route results of the given class and its subclasses, e.g. to write records
+     * as JSON. It's picked before the built-in serializers and before the ones registered later.
+     *
+     * @param type       the class of the route results
+     * @param serializer the serializer
+     */
+    public static void serializer(Class<?> type, Serializer serializer) {
+        getInstance().serializer(type, serializer);
+    }
+
+    /**
+     * Registers a serializer for the route results of the given class and its subclasses, used only if the
+     * response has the given media type or no Content-Type at all, in which case it gets this one.
+     *
+     * @param type        the class of the route results
+     * @param contentType the media type the serializer produces, e.g. 'application/json'
+     * @param serializer  the serializer
+     */
+    public static void serializer(Class<?> type, String contentType, Serializer serializer) {
+        getInstance().serializer(type, contentType, serializer);
+    }
+
+    /**
+     * Sets how often route results written bit by bit, like the elements of a Stream, are flushed to the client.
+     * 200 ms by default.
+     *
+     * @param interval the minimum time between two flushes, zero flushes after every element
+     */
+    public static void streamFlushInterval(Duration interval) {
+        getInstance().streamFlushInterval(interval);
+    }
+
     //////////////////////////////////////////////////
     // HALT methods
     //////////////////////////////////////////////////
@@ -1002,6 +1053,26 @@ public class Speck {
         return getInstance().port();
     }
 
+    /**
+     * Caches the matched filters and route of up to maxSize distinct requests (http method, path and
+     * Accept header), so requests to hot paths skip route matching. Disabled by default.
+     * This has to be called before any route mapping is done.
+     *
+     * @param maxSize the maximum number of cached requests, 0 disables the cache
+     */
+    public static void routeMatchCache(int maxSize) {
+        getInstance().routeMatchCache(maxSize);
+    }
+
+    /**
+     * Retrieves the route match cache, e.g. to check its hit and miss counters.
+     *
+     * @return the route match cache, null if not enabled or route mapping has not begun
+     */
+    public static RouteMatchCache routeMatchCache() {
+        return getInstance().routeMatchCache();
+    }
+
 
     /**
      * Set the connection to be secure, using the specified keystore and
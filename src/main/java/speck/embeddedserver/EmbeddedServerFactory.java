@@ -18,6 +18,7 @@ package speck.embeddedserver;
 
 import speck.ExceptionMapper;
 import speck.route.Routes;
+import speck.serialization.SerializerChain;
 import speck.staticfiles.StaticFilesConfiguration;
 
 /**
@@ -39,4 +40,18 @@ public interface EmbeddedServerFactory {
      * @return the created instance
      */
      EmbeddedServer create(Routes routeMatcher, StaticFilesConfiguration staticFilesConfiguration, ExceptionMapper exceptionMapper, boolean hasMultipleHandler);
+
+    /**
+     * Creates an embedded server instance that serializes the route results with the given serializers.
+     * Factories that don't override it use the built-in serializers only.
+     *
+     * @param routeMatcher The route matcher
+     * @param staticFilesConfiguration The static files configuration object
+     * @param serializerChain The serializers for the route results
+     * @param hasMultipleHandler true if other handlers exist
+     * @return the created instance
+     */
+    default EmbeddedServer create(Routes routeMatcher, StaticFilesConfiguration staticFilesConfiguration, ExceptionMapper exceptionMapper, SerializerChain serializerChain, boolean hasMultipleHandler) {
+        return create(routeMatcher, staticFilesConfiguration, exceptionMapper, hasMultipleHandler);
+    }
 }
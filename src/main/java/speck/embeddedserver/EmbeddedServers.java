@@ -22,6 +22,7 @@ import java.util.Map;
 import speck.ExceptionMapper;
 import speck.embeddedserver.jdkserver.EmbeddedJdkServerFactory;
 import speck.route.Routes;
+import speck.serialization.SerializerChain;
 import speck.staticfiles.StaticFilesConfiguration;
 
 /**
@@ -83,6 +84,32 @@ public class EmbeddedServers {
         }
     }
 
+    /**
+     * Creates an embedded server of type corresponding to the provided identifier.
+     *
+     * @param identifier               the identifier
+     * @param routeMatcher             the route matcher
+     * @param serializerChain          the serializers for the route results
+     * @param staticFilesConfiguration the static files configuration object
+     * @param multipleHandlers         true if other handlers exist
+     * @return the created EmbeddedServer object
+     */
+    public static EmbeddedServer create(Object identifier,
+                                        Routes routeMatcher,
+                                        ExceptionMapper exceptionMapper,
+                                        SerializerChain serializerChain,
+                                        StaticFilesConfiguration staticFilesConfiguration,
+                                        boolean multipleHandlers) {
+
+        EmbeddedServerFactory factory = factories.get(identifier);
+
+        if (factory != null) {
+            return factory.create(routeMatcher, staticFilesConfiguration, exceptionMapper, serializerChain, multipleHandlers);
+        } else {
+            throw new RuntimeException("No embedded server matching the identifier");
+        }
+    }
+
     /**
      * Adds an Embedded server factory for the provided identifier.
      *
@@ -22,6 +22,7 @@ import speck.embeddedserver.EmbeddedServer;
 import speck.embeddedserver.EmbeddedServerFactory;
 import speck.http.matching.MatcherFilter;
 import speck.route.Routes;
+import speck.serialization.SerializerChain;
 import speck.staticfiles.StaticFilesConfiguration;
 
 import java.util.concurrent.Executor;
@@ -46,7 +47,17 @@ public class EmbeddedJdkServerFactory implements EmbeddedServerFactory {
                                  StaticFilesConfiguration staticFilesConfiguration,
                                  ExceptionMapper exceptionMapper,
                                  boolean hasMultipleHandler) {
-        MatcherFilter matcherFilter = new MatcherFilter(routeMatcher, staticFilesConfiguration, exceptionMapper, hasMultipleHandler);
+        return create(routeMatcher, staticFilesConfiguration, exceptionMapper, new SerializerChain(), hasMultipleHandler);
+    }
+
+    @Override
+    public EmbeddedServer create(Routes routeMatcher,
+                                 StaticFilesConfiguration staticFilesConfiguration,
+                                 ExceptionMapper exceptionMapper,
+                                 SerializerChain serializerChain,
+                                 boolean hasMultipleHandler) {
+        MatcherFilter matcherFilter = new MatcherFilter(routeMatcher, staticFilesConfiguration, exceptionMapper,
+                                                        serializerChain, hasMultipleHandler);
         //matcherFilter.init(null);
 
         JdkServerHandler handler = new JdkServerHandler(matcherFilter);
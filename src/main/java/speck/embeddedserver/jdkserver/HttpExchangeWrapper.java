@@ -174,23 +174,11 @@ public class HttpExchangeWrapper extends HttpExchange {
     }
 
 
-    private class CachedInputStream extends InputStream {
-        private ByteArrayInputStream byteArrayInputStream;
+    // Reads the cached bytes in bulk, not one by one
+    private class CachedInputStream extends ByteArrayInputStream {
 
         public CachedInputStream() {
-            byteArrayInputStream = new ByteArrayInputStream(cachedInputBytes);
+            super(cachedInputBytes);
         }
-
-        @Override
-        public int read() {
-            return byteArrayInputStream.read();
-        }
-
-        @Override
-        public int available() {
-            return byteArrayInputStream.available();
-        }
-
-
     }
 }
@@ -37,13 +37,7 @@ public class JdkServerHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        HttpExchangeWrapper wrapper = new HttpExchangeWrapper(exchange);
-        filter.doFilter(wrapper, null);
-
-        if (wrapper.notConsumed()) {
-            //baseRequest.setHandled(false);
-        } else {
-            //baseRequest.setHandled(true);
-        }
+        // MatcherFilter wraps the exchange in its per exchange context, wrapping it here too would only cost an object
+        filter.doFilter(exchange, null);
     }
 }
@@ -0,0 +1,160 @@
+package speck.embeddedserver.jdkserver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import speck.utils.BufferPool;
+
+/**
+ * Response body stream that sends the status and headers as late as possible, so that the response can carry a
+ * Content-Length instead of using chunked transfer encoding.
+ * <p>
+ * If the length is known up front the headers are sent right away and writes go straight to the exchange.
+ * Otherwise up to {@code bufferSize} bytes are buffered: a body that fits is sent with its exact length when the
+ * stream is closed, a bigger one switches to chunked encoding as soon as the buffer overflows.
+ * {@link #flush()} doesn't send anything while buffering.
+ * <p>
+ * The buffer is borrowed from {@link BufferPool#shared()} on the first write and returned once the headers are
+ * sent, so a stream that is never closed only costs the pool an allocation.
+ */
+public final class ResponseBodyStream extends OutputStream {
+
+    /**
+     * Bodies up to this size are sent with a Content-Length when their length isn't known up front
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final long CHUNKED = 0;
+    private static final long NO_BODY = -1;
+
+    private final HttpExchange httpExchange;
+    private final int responseCode;
+    private final int bufferSize;
+
+    private byte[] buffer;
+    private int count;
+    private OutputStream out;
+    private boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param httpExchange  the exchange, its headers must not have been sent yet
+     * @param responseCode  the status code to send
+     * @param contentLength the exact number of bytes that will be written, or -1 if unknown
+     * @param bufferSize    the maximum number of bytes buffered when the length is unknown
+     * @throws IOException if the length is known and sending the headers fails
+     */
+    public ResponseBodyStream(HttpExchange httpExchange, int responseCode, long contentLength, int bufferSize)
+            throws IOException {
+        this.httpExchange = httpExchange;
+        this.responseCode = responseCode;
+        this.bufferSize = bufferSize;
+        if (contentLength >= 0) {
+            sendHeaders(contentLength == 0 ? NO_BODY : contentLength);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (out == null && count < bufferSize) {
+            ensureCapacity(count + 1);
+            buffer[count++] = (byte) b;
+            return;
+        }
+        switchToChunked();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (out == null && len <= bufferSize - count) {
+            if (len > 0) {
+                ensureCapacity(count + len);
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+            }
+            return;
+        }
+        switchToChunked();
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out == null) {
+            try {
+                sendHeaders(count == 0 ? NO_BODY : count);
+                if (count > 0) {
+                    out.write(buffer, 0, count);
+                }
+            } finally {
+                releaseBuffer();
+            }
+        }
+        out.close();
+    }
+
+    /**
+     * @return true once the status and headers were sent
+     */
+    public boolean isCommitted() {
+        return out != null;
+    }
+
+    private void switchToChunked() throws IOException {
+        if (out == null) {
+            try {
+                sendHeaders(CHUNKED);
+                if (count > 0) {
+                    out.write(buffer, 0, count);
+                }
+            } finally {
+                releaseBuffer();
+            }
+        }
+    }
+
+    private void sendHeaders(long responseLength) throws IOException {
+        httpExchange.sendResponseHeaders(responseCode, responseLength);
+        out = httpExchange.getResponseBody();
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = buffer == null ? 0 : buffer.length;
+        if (capacity > length) {
+            byte[] grown = BufferPool.shared().acquire(Math.min(bufferSize, Math.max(length * 2, capacity)));
+            if (count > 0) {
+                System.arraycopy(buffer, 0, grown, 0, count);
+            }
+            releaseBuffer();
+            buffer = grown;
+        }
+    }
+
+    private void releaseBuffer() {
+        BufferPool.shared().release(buffer);
+        buffer = null;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
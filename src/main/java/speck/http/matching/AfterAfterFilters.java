@@ -20,8 +20,6 @@ import java.util.List;
 
 import speck.FilterImpl;
 import speck.Request;
-import speck.RequestResponseFactory;
-import speck.route.HttpMethod;
 import speck.routematch.RouteMatch;
 
 /**
@@ -31,28 +29,19 @@ final class AfterAfterFilters {
 
     static void execute(RouteContext context) throws Exception {
 
-        Object content = context.body().get();
+        Object content = context.body();
 
-        List<RouteMatch> matchSet = context.routeMatcher().findMultiple(HttpMethod.afterafter,
-                                                                               context.uri(),
-                                                                               context.acceptType());
+        List<RouteMatch> matchSet = context.resolvedRoute().getAfterAfterFilters();
 
         for (RouteMatch filterMatch : matchSet) {
             Object filterTarget = filterMatch.getTarget();
 
             if (filterTarget instanceof FilterImpl) {
 
-                if (context.requestWrapper().getDelegate() == null) {
-                    Request request = RequestResponseFactory.createRequest(filterMatch, context.httpExchange());
-                    context.requestWrapper().setDelegate(request);
-                } else {
-                    context.requestWrapper().changeMatch(filterMatch);
-                }
-
-                context.responseWrapper().setDelegate(context.response());
+                Request request = context.request(filterMatch);
 
                 FilterImpl filter = (FilterImpl) filterTarget;
-                filter.handle(context.requestWrapper(), context.responseWrapper());
+                filter.handle(request, context.response());
 
                 String bodyAfterFilter = context.response().body();
 
@@ -62,7 +51,7 @@ final class AfterAfterFilters {
             }
         }
 
-        context.body().set(content);
+        context.body(content);
     }
 
 }
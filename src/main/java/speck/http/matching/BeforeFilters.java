@@ -20,8 +20,6 @@ import java.util.List;
 
 import speck.FilterImpl;
 import speck.Request;
-import speck.RequestResponseFactory;
-import speck.route.HttpMethod;
 import speck.routematch.RouteMatch;
 
 /**
@@ -30,22 +28,19 @@ import speck.routematch.RouteMatch;
 final class BeforeFilters {
 
     static void execute(RouteContext context) throws Exception {
-        Object content = context.body().get();
+        Object content = context.body();
 
-        List<RouteMatch> matchSet = context.routeMatcher().findMultiple(HttpMethod.before, context.uri(), context.acceptType());
+        List<RouteMatch> matchSet = context.resolvedRoute().getBeforeFilters();
 
         for (RouteMatch filterMatch : matchSet) {
             Object filterTarget = filterMatch.getTarget();
 
             if (filterTarget instanceof FilterImpl) {
-                Request request = RequestResponseFactory.createRequest(filterMatch, context.httpExchange());
+                Request request = context.request(filterMatch);
 
                 FilterImpl filter = (FilterImpl) filterTarget;
 
-                context.requestWrapper().setDelegate(request);
-                context.responseWrapper().setDelegate(context.response());
-
-                filter.handle(context.requestWrapper(), context.responseWrapper());
+                filter.handle(request, context.response());
 
                 String bodyAfterFilter = context.response().body();
 
@@ -55,7 +50,7 @@ final class BeforeFilters {
             }
         }
 
-        context.body().set(content);
+        context.body(content);
     }
 
 }
@@ -16,15 +16,12 @@
  */
 package speck.http.matching;
 
-import com.sun.net.httpserver.HttpExchange;
 import speck.CustomErrorPages;
 import speck.ExceptionHandlerImpl;
 import speck.ExceptionMapper;
-import speck.RequestResponseFactory;
-import speck.embeddedserver.jdkserver.HttpExchangeWrapper;
 
 /**
- * Modifies the HTTP response and body based on the provided exception and request/response wrappers.
+ * Modifies the HTTP response and body based on the provided exception and the request/response of the exchange.
  */
 final class GeneralError {
 
@@ -34,35 +31,30 @@ final class GeneralError {
     /**
      * Modifies the HTTP response and body based on the provided exception.
      */
-    static void modify(HttpExchange httpExchange,
-                       Body body,
-                       RequestWrapper requestWrapper,
-                       ResponseWrapper responseWrapper,
+    static void modify(RouteContext context,
                        ExceptionMapper exceptionMapper,
                        Exception e) {
 
         ExceptionHandlerImpl<Exception> handler = (ExceptionHandlerImpl<Exception>) exceptionMapper.getHandler(e);
 
         if (handler != null) {
-            handler.handle(e, requestWrapper, responseWrapper);
-            String bodyAfterFilter = responseWrapper.getDelegate().body();
+            handler.handle(e, context.request(), context.response());
+            String bodyAfterFilter = context.response().body();
 
             if (bodyAfterFilter != null) {
-                body.set(bodyAfterFilter);
+                context.body(bodyAfterFilter);
             }
         } else {
             LOG.log(System.Logger.Level.ERROR, "", e);
 
-            if(httpExchange instanceof HttpExchangeWrapper wrapper){
-                wrapper.setResponseCode(500);
-            }
+            context.setResponseCode(500);
 
             if (CustomErrorPages.existsFor(500)) {
-                requestWrapper.setDelegate(RequestResponseFactory.createRequest(httpExchange));
-                responseWrapper.setDelegate(RequestResponseFactory.createResponse(httpExchange));
-                body.set(CustomErrorPages.getFor(500, requestWrapper, responseWrapper));
+                context.body(CustomErrorPages.getFor(500,
+                                                     context.request(),
+                                                     context.response()));
             } else {
-                body.set(CustomErrorPages.INTERNAL_ERROR);
+                context.body(CustomErrorPages.INTERNAL_ERROR);
             }
         }
     }
@@ -16,9 +16,7 @@
  */
 package speck.http.matching;
 
-import com.sun.net.httpserver.HttpExchange;
 import speck.HaltException;
-import speck.embeddedserver.jdkserver.HttpExchangeWrapper;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -33,19 +31,16 @@ public class Halt {
     /**
      * Modifies the HTTP response and body based on the provided HaltException.
      *
-     * @param httpExchange The HTTP servlet response
-     * @param body         The body content
-     * @param halt         The halt exception object
+     * @param context The exchange, holding the body content
+     * @param halt    The halt exception object
      */
-    public static void modify(HttpExchange httpExchange, Body body, HaltException halt) {
-        if(httpExchange instanceof HttpExchangeWrapper wrapper){
-            wrapper.setResponseCode(halt.statusCode());
-        }
+    public static void modify(RouteContext context, HaltException halt) {
+        context.setResponseCode(halt.statusCode());
 
         if (halt.body() != null) {
-            body.set(halt.body());
+            context.body(halt.body());
         } else {
-            body.set("");
+            context.body("");
         }
     }
 }
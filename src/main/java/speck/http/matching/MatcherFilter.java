@@ -17,6 +17,8 @@
 package speck.http.matching;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
 
 
 import com.sun.net.httpserver.Filter;
@@ -24,12 +26,13 @@ import com.sun.net.httpserver.HttpExchange;
 import speck.CustomErrorPages;
 import speck.ExceptionMapper;
 import speck.HaltException;
-import speck.RequestResponseFactory;
-import speck.Response;
-import speck.embeddedserver.jdkserver.HttpExchangeWrapper;
+import speck.embeddedserver.jdkserver.ResponseBodyStream;
 import speck.route.HttpMethod;
+import speck.serialization.Serializer;
 import speck.serialization.SerializerChain;
+import speck.staticfiles.MimeType;
 import speck.staticfiles.StaticFilesConfiguration;
+import speck.utils.GzipUtils;
 
 /**
  * Matches Speck routes and filters.
@@ -46,7 +49,7 @@ public class MatcherFilter extends Filter {
     private final StaticFilesConfiguration staticFiles;
 
     private speck.route.Routes routeMatcher;
-    private SerializerChain serializerChain;
+    private final SerializerChain serializerChain;
     private ExceptionMapper exceptionMapper;
 
     private boolean hasOtherHandlers;
@@ -62,52 +65,56 @@ public class MatcherFilter extends Filter {
                          StaticFilesConfiguration staticFiles,
                          ExceptionMapper exceptionMapper,
                          boolean hasOtherHandlers) {
+        this(routeMatcher, staticFiles, exceptionMapper, new SerializerChain(), hasOtherHandlers);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param routeMatcher     The route matcher
+     * @param staticFiles      The static files configuration object
+     * @param serializerChain  The serializers for the route results
+     * @param hasOtherHandlers If true, do nothing if request is not consumed by Speck in order to let others handlers process the request.
+     */
+    public MatcherFilter(speck.route.Routes routeMatcher,
+                         StaticFilesConfiguration staticFiles,
+                         ExceptionMapper exceptionMapper,
+                         SerializerChain serializerChain,
+                         boolean hasOtherHandlers) {
 
         this.routeMatcher = routeMatcher;
         this.staticFiles = staticFiles;
         this.exceptionMapper = exceptionMapper;
+        this.serializerChain = serializerChain;
         this.hasOtherHandlers = hasOtherHandlers;
-        this.serializerChain = new SerializerChain();
     }
 
 
     @Override
     public void doFilter(HttpExchange httpExchange, Chain chain) throws IOException {
-
+        RouteContext context = RouteContext.create(httpExchange);
 
         // handle static resources
-        boolean consumedByStaticFile = staticFiles.consume(httpExchange);
+        boolean consumedByStaticFile = staticFiles.consume(context);
 
         if (consumedByStaticFile) {
             return;
         }
 
-        String method = getHttpMethodFrom(httpExchange);
+        String method = getHttpMethodFrom(context);
 
         String httpMethodStr = method.toLowerCase();
         //https://stackoverflow.com/questions/4931323/whats-the-difference-between-getrequesturi-and-getpathinfo-methods-in-httpservl
-        String uri = httpExchange.getRequestURI().getRawPath();
-        String acceptType = httpExchange.getRequestHeaders().getFirst(ACCEPT_TYPE_REQUEST_MIME_HEADER);
-
-        Body body = Body.create();
-
-        RequestWrapper requestWrapper = RequestWrapper.create();
-        ResponseWrapper responseWrapper = ResponseWrapper.create();
-
-        Response response = RequestResponseFactory.createResponse(httpExchange);
+        String uri = context.getRequestURI().getRawPath();
+        String acceptType = context.getRequestHeaders().getFirst(ACCEPT_TYPE_REQUEST_MIME_HEADER);
 
         HttpMethod httpMethod = HttpMethod.get(httpMethodStr);
 
-        RouteContext context = RouteContext.create()
-                .withMatcher(routeMatcher)
-                .withHttpRequest(httpExchange)
+        context.withMatcher(routeMatcher)
                 .withUri(uri)
                 .withAcceptType(acceptType)
-                .withBody(body)
-                .withRequestWrapper(requestWrapper)
-                .withResponseWrapper(responseWrapper)
-                .withResponse(response)
-                .withHttpMethod(httpMethod);
+                .withHttpMethod(httpMethod)
+                .withResolvedRoute(routeMatcher.resolve(httpMethod, uri, acceptType));
 
         try {
             try {
@@ -118,26 +125,20 @@ public class MatcherFilter extends Filter {
 
             } catch (HaltException halt) {
 
-                Halt.modify(httpExchange, body, halt);
+                Halt.modify(context, halt);
 
             } catch (Exception generalException) {
 
-                GeneralError.modify(
-                        httpExchange,
-                        body,
-                        requestWrapper,
-                        responseWrapper,
-                        exceptionMapper,
-                        generalException);
+                GeneralError.modify(context, exceptionMapper, generalException);
 
             }
 
             // If redirected and content is null set to empty string to not throw NotConsumedException
-            if (body.notSet() && responseWrapper.isRedirected()) {
-                body.set("");
+            if (context.bodyNotSet() && context.isRedirected()) {
+                context.body("");
             }
 
-            if (body.notSet() && hasOtherHandlers) {
+            if (context.bodyNotSet() && hasOtherHandlers) {
                 /*
                 if (servletRequest instanceof HttpRequestWrapper) {
                     ((HttpRequestWrapper) servletRequest).notConsumed(true);
@@ -145,40 +146,114 @@ public class MatcherFilter extends Filter {
                 }*/
             }
 
-            if (body.notSet()) {
+            if (context.bodyNotSet() && !context.isStreamed()) {
                 LOG.log(System.Logger.Level.INFO, "The requested route [{0}] has not been mapped in Speck for {1}: [{2}]",
                          uri, ACCEPT_TYPE_REQUEST_MIME_HEADER, acceptType);
-                if(httpExchange instanceof HttpExchangeWrapper wrapper){
-                    wrapper.setResponseCode(404);
-                }
+                context.setResponseCode(404);
 
                 if (CustomErrorPages.existsFor(404)) {
-                     requestWrapper.setDelegate(RequestResponseFactory.createRequest(httpExchange));
-                    responseWrapper.setDelegate(RequestResponseFactory.createResponse(httpExchange));
-                    body.set(CustomErrorPages.getFor(404, requestWrapper, responseWrapper));
+                    context.body(CustomErrorPages.getFor(404,
+                                                         context.request(),
+                                                         context.response()));
                 } else {
-                    body.set(String.format(CustomErrorPages.NOT_FOUND));
+                    context.body(String.format(CustomErrorPages.NOT_FOUND));
                 }
             }
         } finally {
             try {
                 AfterAfterFilters.execute(context);
             } catch (Exception generalException) {
-                GeneralError.modify(
-                        httpExchange,
-                        body,
-                        requestWrapper,
-                        responseWrapper,
-                        exceptionMapper,
-                        generalException);
+                GeneralError.modify(context, exceptionMapper, generalException);
             }
         }
 
-        if (body.isSet()) {
-            body.serializeTo(httpExchange, serializerChain);
+        if (context.isStreamed()) {
+            // The body was written by the route, whatever it returned
+            if (context.body() != null) {
+                discard(context, serializerChain.serializerFor(context.body(), context.getResponseHeaders().getFirst("Content-Type")));
+            }
+            context.closeStream();
+        } else if (context.body() != null && context.discardsBody()) {
+            sendHeaders(context);
+        } else if (context.body() != null) {
+            serializeBody(context);
         } else if (chain != null) {
-            chain.doFilter(httpExchange);
+            chain.doFilter(context);
+        }
+    }
+
+    /**
+     * Sends the status and headers only, the body is neither serialized nor gzipped but discarded, which closes
+     * streams and files and cancels publishers.
+     */
+    private void sendHeaders(RouteContext context) throws IOException {
+        Serializer serializer;
+        if (context.httpMethod() == HttpMethod.head && !context.isCommitted()) {
+            serializer = guessContentType(context);
+        } else {
+            serializer = serializerChain.serializerFor(context.body(), context.getResponseHeaders().getFirst("Content-Type"));
         }
+        discard(context, serializer);
+        if (!context.isCommitted()) {
+            context.sendResponseHeaders(responseCode(context), -1);
+            context.getResponseBody().close();
+        }
+    }
+
+    /**
+     * Releases a body that won't be serialized. Failing to is logged, the response goes on.
+     */
+    private static void discard(RouteContext context, Serializer serializer) {
+        try {
+            serializer.discard(context.body());
+        } catch (IOException | RuntimeException e) {
+            LOG.log(System.Logger.Level.WARNING, "Failed to discard the response body", e);
+        }
+    }
+
+    private void serializeBody(RouteContext context) throws IOException {
+        if (!context.isCommitted()) {
+            Serializer serializer = guessContentType(context);
+
+            // Serialize the body to output stream
+            Integer responseCode = responseCode(context);
+
+            // Check if GZIP is wanted/accepted and in that case handle that
+            boolean gzip = GzipUtils.checkGzip(context, true);
+
+            // Headers are sent with the exact length if the serializer knows it, or if the body fits the buffer.
+            // Only longer bodies, and gzipped ones that don't fit once compressed, are sent in chunked mode,
+            // as well as streamed ones, so that what they flush reaches the client
+            long contentLength = gzip ? -1 : serializer.contentLength(context.body());
+            int bufferSize = serializer.streams(context.body()) ? 0 : ResponseBodyStream.DEFAULT_BUFFER_SIZE;
+            OutputStream responseStream = new ResponseBodyStream(context, responseCode, contentLength, bufferSize);
+            if (gzip) {
+                responseStream = new GZIPOutputStream(responseStream, true);
+            }
+
+            serializer.process(responseStream, context.body());
+
+            responseStream.flush(); // needed for GZIP stream. Not sure where the HTTP response actually gets cleaned up
+            responseStream.close(); // needed for GZIP
+        }
+    }
+
+    /**
+     * Picks the serializer for the body, by its class and the Content-Type of the response, and sets the
+     * Content-Type if missing.
+     */
+    private Serializer guessContentType(RouteContext context) {
+        String contentType = context.getResponseHeaders().getFirst("Content-Type");
+        Serializer serializer = serializerChain.serializerFor(context.body(), contentType);
+        if (contentType == null && MimeType.shouldGuess()) {
+            String guessed = serializer.contentType(context.body());
+            context.getResponseHeaders().add("Content-Type", guessed != null ? guessed : "text/html; charset=utf-8");
+        }
+        return serializer;
+    }
+
+    private static int responseCode(RouteContext context) {
+        return context.getResponseCode() == -1 ? 200 : context.getResponseCode();
     }
 
     private String getHttpMethodFrom(HttpExchange exchange) {
@@ -16,35 +16,48 @@
  */
 package speck.http.matching;
 
+import java.io.IOException;
+
 import com.sun.net.httpserver.HttpExchange;
+import speck.Access;
+import speck.Request;
+import speck.RequestResponseFactory;
 import speck.Response;
+import speck.embeddedserver.jdkserver.HttpExchangeWrapper;
 import speck.route.*;
 import speck.route.Routes;
+import speck.routematch.RouteMatch;
 
 /**
- * Holds the parameters needed in the Before filters, Routes and After filters execution.
+ * Everything about one exchange that the Before filters, Routes and After filters execution share: the exchange
+ * itself, what was matched, the body to send and the single Request and Response handed to every filter and route.
+ * Being the exchange wrapper too, it is the only object the matcher allocates per exchange besides the
+ * Request and Response, which are created once and re-pointed at each new match.
  */
-final class RouteContext {
+final class RouteContext extends HttpExchangeWrapper {
 
     /**
      * Creates a RouteContext
+     *
+     * @param httpExchange the exchange to wrap
      */
-    static RouteContext create() {
-        return new RouteContext();
+    static RouteContext create(HttpExchange httpExchange) {
+        return new RouteContext(httpExchange);
     }
 
     private Routes routeMatcher;
-    private HttpExchange httpExchange;
     private String uri;
     private String acceptType;
-    private Body body;
-    private RequestWrapper requestWrapper;
-    private ResponseWrapper responseWrapper;
-    private Response response;
     private HttpMethod httpMethod;
+    private ResolvedRoute resolvedRoute;
+
+    private Object body;
+    private boolean discardBody;
+    private Request request;
+    private Response response;
 
-    private RouteContext() {
-        // hidden
+    private RouteContext(HttpExchange httpExchange) {
+        super(httpExchange);
     }
 
     public Routes routeMatcher() {
@@ -56,48 +69,28 @@ final class RouteContext {
         return this;
     }
 
-    public RouteContext withHttpRequest(HttpExchange httpExchange) {
-        this.httpExchange = httpExchange;
-        return this;
-    }
-
     public RouteContext withAcceptType(String acceptType) {
         this.acceptType = acceptType;
         return this;
     }
 
-    public RouteContext withBody(Body body) {
-        this.body = body;
-        return this;
-    }
-
-    public RouteContext withRequestWrapper(RequestWrapper requestWrapper) {
-        this.requestWrapper = requestWrapper;
-        return this;
-    }
-
     public RouteContext withUri(String uri) {
         this.uri = uri;
         return this;
     }
 
-    public RouteContext withResponseWrapper(ResponseWrapper responseWrapper) {
-        this.responseWrapper = responseWrapper;
-        return this;
-    }
-
-    public RouteContext withResponse(Response response) {
-        this.response = response;
+    public RouteContext withHttpMethod(HttpMethod httpMethod) {
+        this.httpMethod = httpMethod;
         return this;
     }
 
-    public RouteContext withHttpMethod(HttpMethod httpMethod) {
-        this.httpMethod = httpMethod;
+    public RouteContext withResolvedRoute(ResolvedRoute resolvedRoute) {
+        this.resolvedRoute = resolvedRoute;
         return this;
     }
 
     public HttpExchange httpExchange() {
-        return httpExchange;
+        return this;
     }
 
     public String uri() {
@@ -108,24 +101,96 @@ final class RouteContext {
         return acceptType;
     }
 
-    public Body body() {
+    public HttpMethod httpMethod() {
+        return httpMethod;
+    }
+
+    public ResolvedRoute resolvedRoute() {
+        return resolvedRoute;
+    }
+
+    /**
+     * @return the content to serialize as response body, null if not set yet
+     */
+    public Object body() {
         return body;
     }
 
-    public RequestWrapper requestWrapper() {
-        return requestWrapper;
+    public void body(Object body) {
+        this.body = body;
+    }
+
+    public boolean bodyNotSet() {
+        return body == null;
     }
 
-    public ResponseWrapper responseWrapper() {
-        return responseWrapper;
+    /**
+     * Sends the response without a body, whatever the body content is.
+     */
+    public void discardBody() {
+        this.discardBody = true;
+    }
+
+    /**
+     * @return true if the response must not have a body, e.g. for HEAD requests
+     */
+    public boolean discardsBody() {
+        return discardBody || "HEAD".equals(getRequestMethod());
+    }
+
+    /**
+     * @return the request, without route params if no filter or route matched yet
+     */
+    public Request request() {
+        if (request == null) {
+            request = RequestResponseFactory.createRequest(this);
+        }
+        return request;
+    }
+
+    /**
+     * Points the request at a new match, creating it the first time.
+     *
+     * @param match the filter or route match
+     * @return the request
+     */
+    public Request request(RouteMatch match) {
+        if (request == null) {
+            request = RequestResponseFactory.createRequest(match, this);
+        } else {
+            Access.changeMatch(request, match);
+        }
+        return request;
     }
 
     public Response response() {
+        if (response == null) {
+            response = RequestResponseFactory.createResponse(this);
+        }
         return response;
     }
 
-    public HttpMethod httpMethod() {
-        return httpMethod;
+    /**
+     * @return true if a filter or route redirected
+     */
+    public boolean isRedirected() {
+        return response != null && Access.isRedirected(response);
+    }
+
+    /**
+     * @return true if a filter or route writes the body through the response stream
+     */
+    public boolean isStreamed() {
+        return response != null && Access.isStreamed(response);
+    }
+
+    /**
+     * Closes the response stream, see {@link #isStreamed()}.
+     *
+     * @throws IOException in case of IO error
+     */
+    public void closeStream() throws IOException {
+        Access.closeStream(response);
     }
 
 }
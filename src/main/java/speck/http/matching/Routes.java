@@ -16,8 +16,12 @@
  */
 package speck.http.matching;
 
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+
 import speck.Request;
-import speck.RequestResponseFactory;
 import speck.RouteImpl;
 import speck.route.HttpMethod;
 import speck.routematch.RouteMatch;
@@ -27,20 +31,27 @@ import speck.routematch.RouteMatch;
  */
 final class Routes {
 
+    private static final String ALLOW_HEADER = "Allow";
+
     static void execute(RouteContext context) throws Exception {
 
-        Object content = context.body().get();
+        Object content = context.body();
 
-        RouteMatch match = context.routeMatcher().find(context.httpMethod(), context.uri(), context.acceptType());
+        RouteMatch match = context.resolvedRoute().getRoute();
 
         Object target = null;
         if (match != null) {
             target = match.getTarget();
-        } else if (context.httpMethod() == HttpMethod.head && context.body().notSet()) {
-            // See if get is mapped to provide default head mapping
-            content =
-                    context.routeMatcher().find(HttpMethod.get, context.uri(), context.acceptType())
-                            != null ? "" : null;
+        } else if (context.httpMethod() == HttpMethod.head && context.bodyNotSet()) {
+            // Default head mapping if get is mapped, known from the route lookup already
+            content = context.resolvedRoute().isServedByGet() ? "" : null;
+        } else if (context.httpMethod() == HttpMethod.options && context.bodyNotSet()) {
+            Set<HttpMethod> allowed = context.resolvedRoute().getAllowedMethods();
+            if (!allowed.isEmpty()) {
+                context.getResponseHeaders().set(ALLOW_HEADER, allowHeader(allowed));
+                context.discardBody();
+                content = "";
+            }
         }
 
         if (target != null) {
@@ -49,17 +60,10 @@ final class Routes {
             if (target instanceof RouteImpl) {
                 RouteImpl route = ((RouteImpl) target);
 
-                if (context.requestWrapper().getDelegate() == null) {
-                    Request request = RequestResponseFactory.createRequest(match, context.httpExchange());
-                    context.requestWrapper().setDelegate(request);
-                } else {
-                    context.requestWrapper().changeMatch(match);
-                }
-
-                context.responseWrapper().setDelegate(context.response());
+                Request request = context.request(match);
 
-                Object element = route.handle(context.requestWrapper(), context.responseWrapper());
-                if (!context.responseWrapper().isRedirected()) {
+                Object element = route.handle(request, context.response());
+                if (!context.isRedirected()) {
                 	result = route.render(element);
                 }
             }
@@ -71,13 +75,27 @@ final class Routes {
                     String contentStr = (String) content;
 
                     if (!contentStr.isEmpty()) {
-                        context.responseWrapper().body(contentStr);
+                        context.response().body(contentStr);
                     }
                 }
             }
         }
 
-        context.body().set(content);
+        context.body(content);
+    }
+
+    private static String allowHeader(Set<HttpMethod> mapped) {
+        Set<HttpMethod> allowed = EnumSet.copyOf(mapped);
+        if (allowed.contains(HttpMethod.get)) {
+            allowed.add(HttpMethod.head);
+        }
+        allowed.add(HttpMethod.options);
+
+        StringJoiner header = new StringJoiner(", ");
+        for (HttpMethod httpMethod : allowed) {
+            header.add(httpMethod.name().toUpperCase(Locale.ROOT));
+        }
+        return header.toString();
     }
 
 }
@@ -0,0 +1,87 @@
+package speck.route;
+
+import java.util.List;
+import java.util.Set;
+
+import speck.routematch.RouteMatch;
+
+/**
+ * Everything a request needs from the route table, resolved with a single lookup: the matching before filters,
+ * the route, the after filters and the afterAfter filters, each with its captured params.
+ * HEAD and OPTIONS requests without a route of their own also get what is needed to answer them from the
+ * route table: whether a GET route serves the path, and which methods are mapped for it.
+ * Instances are immutable, so they can be cached and shared by concurrent requests.
+ */
+public final class ResolvedRoute {
+
+    private final List<RouteMatch> beforeFilters;
+    private final RouteMatch route;
+    private final List<RouteMatch> afterFilters;
+    private final List<RouteMatch> afterAfterFilters;
+    private final boolean servedByGet;
+    private final Set<HttpMethod> allowedMethods;
+
+    ResolvedRoute(List<RouteMatch> beforeFilters,
+                  RouteMatch route,
+                  List<RouteMatch> afterFilters,
+                  List<RouteMatch> afterAfterFilters) {
+        this(beforeFilters, route, afterFilters, afterAfterFilters, false, Set.of());
+    }
+
+    ResolvedRoute(List<RouteMatch> beforeFilters,
+                  RouteMatch route,
+                  List<RouteMatch> afterFilters,
+                  List<RouteMatch> afterAfterFilters,
+                  boolean servedByGet,
+                  Set<HttpMethod> allowedMethods) {
+        this.beforeFilters = List.copyOf(beforeFilters);
+        this.route = route;
+        this.afterFilters = List.copyOf(afterFilters);
+        this.afterAfterFilters = List.copyOf(afterAfterFilters);
+        this.servedByGet = servedByGet;
+        this.allowedMethods = allowedMethods;
+    }
+
+    /**
+     * @return the matching before filters, in mapping order
+     */
+    public List<RouteMatch> getBeforeFilters() {
+        return beforeFilters;
+    }
+
+    /**
+     * @return the matching route, or null if none was found
+     */
+    public RouteMatch getRoute() {
+        return route;
+    }
+
+    /**
+     * @return the matching after filters, in mapping order
+     */
+    public List<RouteMatch> getAfterFilters() {
+        return afterFilters;
+    }
+
+    /**
+     * @return the matching afterAfter filters, in mapping order
+     */
+    public List<RouteMatch> getAfterAfterFilters() {
+        return afterAfterFilters;
+    }
+
+    /**
+     * @return true if this is a HEAD request without a HEAD route, for a path and accept type a GET route serves
+     */
+    public boolean isServedByGet() {
+        return servedByGet;
+    }
+
+    /**
+     * @return for HEAD and OPTIONS requests without a route of their own, the methods with a route matching the
+     * path, regardless of the accept type. Empty otherwise.
+     */
+    public Set<HttpMethod> getAllowedMethods() {
+        return allowedMethods;
+    }
+}
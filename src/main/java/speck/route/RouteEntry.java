@@ -16,8 +16,7 @@
  */
 package speck.route;
 
-import java.util.List;
-
+import speck.utils.MimeParse;
 import speck.utils.SpeckUtils;
 
 /**
@@ -31,6 +30,8 @@ class RouteEntry {
     String path;
     String acceptedType;
     Object target;
+    RoutePattern pattern;
+    MimeParse.ParseResults parsedAcceptedType;
 
     RouteEntry() {
     }
@@ -40,6 +41,32 @@ class RouteEntry {
         this.path = entry.path;
         this.acceptedType = entry.acceptedType;
         this.target = entry.target;
+        this.pattern = entry.pattern;
+        this.parsedAcceptedType = entry.parsedAcceptedType;
+    }
+
+    /**
+     * @return the compiled path, recompiled if the path was changed after the entry was created
+     */
+    RoutePattern pattern() {
+        RoutePattern compiled = pattern;
+        if (compiled == null || compiled.path() != path) { // NOSONAR identity is enough here
+            compiled = RoutePattern.compile(path);
+            pattern = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the parsed accepted type, parsed once
+     */
+    MimeParse.ParseResults parsedAcceptedType() {
+        MimeParse.ParseResults parsed = parsedAcceptedType;
+        if (parsed == null) {
+            parsed = MimeParse.parse(acceptedType);
+            parsedAcceptedType = parsed;
+        }
+        return parsed;
     }
 
     boolean matches(HttpMethod httpMethod, String path) {
@@ -51,81 +78,11 @@ class RouteEntry {
         }
         boolean match = false;
         if (this.httpMethod == httpMethod) {
-            match = matchPath(path);
+            match = pattern().matches(path);
         }
         return match;
     }
 
-    private boolean matchPath(String path) { // NOSONAR
-        if (!this.path.endsWith("*") && ((path.endsWith("/") && !this.path.endsWith("/")) // NOSONAR
-                || (this.path.endsWith("/") && !path.endsWith("/")))) {
-            // One and not both ends with slash
-            return false;
-        }
-        if (this.path.equals(path)) {
-            // Paths are the same
-            return true;
-        }
-
-        // check params
-        List<String> thisPathList = SpeckUtils.convertRouteToList(this.path);
-        List<String> pathList = SpeckUtils.convertRouteToList(path);
-
-        int thisPathSize = thisPathList.size();
-        int pathSize = pathList.size();
-
-        if (thisPathSize == pathSize) {
-            for (int i = 0; i < thisPathSize; i++) {
-                String thisPathPart = thisPathList.get(i);
-                String pathPart = pathList.get(i);
-
-                if ((i == thisPathSize - 1) && (thisPathPart.equals("*") && this.path.endsWith("*"))) {
-                    // wildcard match
-                    return true;
-                }
-
-                if ((!thisPathPart.startsWith(":"))
-                        && !thisPathPart.equals(pathPart)
-                        && !thisPathPart.equals("*")) {
-                    return false;
-                }
-            }
-            // All parts matched
-            return true;
-        } else {
-            // Number of "path parts" not the same
-            // check wild card:
-            if (this.path.endsWith("*")) {
-                if (pathSize == (thisPathSize - 1) && (path.endsWith("/"))) {
-                    // Hack for making wildcards work with trailing slash
-                    pathList.add("");
-                    pathList.add("");
-                    pathSize += 2;
-                }
-
-                if (thisPathSize < pathSize) {
-                    for (int i = 0; i < thisPathSize; i++) {
-                        String thisPathPart = thisPathList.get(i);
-                        String pathPart = pathList.get(i);
-                        if (thisPathPart.equals("*") && (i == thisPathSize - 1) && this.path.endsWith("*")) {
-                            // wildcard match
-                            return true;
-                        }
-                        if (!thisPathPart.startsWith(":")
-                                && !thisPathPart.equals(pathPart)
-                                && !thisPathPart.equals("*")) {
-                            return false;
-                        }
-                    }
-                    // All parts matched
-                    return true;
-                }
-                // End check wild card
-            }
-            return false;
-        }
-    }
-
     @Override
     public String toString() {
         return httpMethod.name() + ", " + path + ", " + target;
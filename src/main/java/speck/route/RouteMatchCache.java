@@ -0,0 +1,214 @@
+package speck.route;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import speck.routematch.RouteMatch;
+import speck.utils.Assert;
+
+/**
+ * Bounded cache of {@link ResolvedRoute}s keyed by http method, raw path and Accept header, so requests to hot
+ * concrete paths such as '/api/v1/health' or '/books/42' skip matching altogether.
+ * <p>
+ * Eviction follows the CLOCK algorithm, an approximation of LRU where a hit only sets a flag: lookups never
+ * lock, only misses that add an entry do. A single route may use at most a quarter of the entries, unmatched
+ * paths count as one route, so a pattern such as '/books/:id' requested with thousands of different ids
+ * only recycles its own entries instead of evicting the hot paths of other routes.
+ * <p>
+ * Entries remember the route table they were resolved from. The cache is cleared when the routes change, and an
+ * entry of an older table put while that happened is dropped by the first lookup that finds it.
+ */
+public final class RouteMatchCache {
+
+    private static final Object NO_ROUTE = new Object();
+
+    private final int maxSize;
+    private final int maxPerRoute;
+
+    private final ConcurrentHashMap<Key, Slot> index = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Guards the fields below, taken when adding or dropping entries only
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Slot[] slots;
+    private final Map<Object, Integer> perRoute = new HashMap<>();
+    private int hand;
+
+    /**
+     * Constructor
+     *
+     * @param maxSize the maximum number of cached paths
+     */
+    public RouteMatchCache(int maxSize) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+        this.maxPerRoute = Math.max(1, maxSize / 4);
+        this.slots = new Slot[maxSize];
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to match the routes
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of cached paths
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the maximum number of cached paths
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Drops all entries, the hit and miss counters are kept.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            index.clear();
+            perRoute.clear();
+            Arrays.fill(slots, null);
+            hand = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ResolvedRoute get(Key key, RouteTable table) {
+        Slot slot = index.get(key);
+        if (slot != null) {
+            if (slot.table == table) {
+                if (!slot.referenced) {
+                    slot.referenced = true;
+                }
+                hits.increment();
+                return slot.resolved;
+            }
+            // Put by a lookup that started before the routes changed, after the cache was cleared
+            drop(slot);
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(Key key, RouteTable table, ResolvedRoute resolved) {
+        RouteMatch route = resolved.getRoute();
+        Object group = route != null ? route.getTarget() : NO_ROUTE;
+
+        lock.lock();
+        try {
+            Slot existing = index.get(key);
+            int position;
+            if (existing != null) {
+                // Same path resolved again, e.g. after the routes changed
+                position = existing.position;
+                release(existing);
+            } else if (perRoute.getOrDefault(group, 0) >= maxPerRoute) {
+                position = victim(group);
+                release(slots[position]);
+            } else {
+                position = victim(null);
+                if (slots[position] != null) {
+                    release(slots[position]);
+                }
+            }
+
+            Slot slot = new Slot(key, table, resolved, group, position);
+            slots[position] = slot;
+            index.put(key, slot);
+            perRoute.merge(group, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sweeps the clock hand until it finds a free slot or an entry not used since the last sweep. Hits keep
+     * setting the flags while it sweeps, so after two full turns it gives up and takes the first entry it passed.
+     * Must be called holding the lock.
+     *
+     * @param group if not null only entries of this route are considered, it must have at least one entry
+     * @return the position of the slot to reuse
+     */
+    private int victim(Object group) {
+        int first = -1;
+        for (int i = 0; i < 2 * slots.length; i++) {
+            int position = hand;
+            hand = (hand + 1) % slots.length;
+
+            Slot slot = slots[position];
+            if (slot == null) {
+                if (group == null) {
+                    return position;
+                }
+            } else if (group == null || slot.group == group) {
+                if (!slot.referenced) {
+                    return position;
+                }
+                slot.referenced = false;
+                if (first < 0) {
+                    first = position;
+                }
+            }
+        }
+        return first;
+    }
+
+    private void drop(Slot slot) {
+        lock.lock();
+        try {
+            if (slots[slot.position] == slot) {
+                release(slot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Slot slot) {
+        slots[slot.position] = null;
+        index.remove(slot.key, slot);
+        perRoute.computeIfPresent(slot.group, (route, count) -> count > 1 ? count - 1 : null);
+    }
+
+    record Key(HttpMethod httpMethod, String path, String acceptType) {
+    }
+
+    private static final class Slot {
+
+        private final Key key;
+        private final RouteTable table;
+        private final ResolvedRoute resolved;
+        private final Object group;
+        private final int position;
+        private volatile boolean referenced;
+
+        Slot(Key key, RouteTable table, ResolvedRoute resolved, Object group, int position) {
+            this.key = key;
+            this.table = table;
+            this.resolved = resolved;
+            this.group = group;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package speck.route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import speck.utils.SpeckUtils;
+
+/**
+ * A route path tokenized once, when the route is registered.
+ * Matching works on index ranges of the raw requested path, so neither {@link #matches(String)} nor
+ * {@link #capture(String, int[])} allocate. Every ':param' and '*' segment is assigned a capture slot at
+ * compile time; captured values are handed around as an int array of [start, end) pairs, one pair per slot.
+ */
+public final class RoutePattern {
+
+    private static final byte LITERAL = 0;
+    private static final byte PARAM = 1;
+    private static final byte SPLAT = 2;
+
+    private static final int[] NO_CAPTURES = new int[0];
+
+    private final String path;
+    private final String[] segments;
+    private final byte[] kinds;
+    private final int[] slots;
+    private final String[] paramNames;
+    private final boolean endsWithSplat;
+    private final boolean endsWithSlash;
+    private final boolean regular;
+
+    private RoutePattern(String path) {
+        this.path = path;
+        this.segments = SpeckUtils.convertRouteToList(path).toArray(new String[0]);
+        this.kinds = new byte[segments.length];
+        this.slots = new int[segments.length];
+
+        List<String> names = new ArrayList<>();
+        boolean onlyPlainSegments = true;
+
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (SpeckUtils.isParam(segment)) {
+                kinds[i] = PARAM;
+                slots[i] = names.size();
+                names.add(segment.toLowerCase()); // NOSONAR
+            } else if (SpeckUtils.isSplat(segment)) {
+                kinds[i] = SPLAT;
+                slots[i] = names.size();
+                names.add(null);
+            } else {
+                kinds[i] = LITERAL;
+                slots[i] = -1;
+                onlyPlainSegments &= segment.indexOf('*') < 0;
+            }
+        }
+
+        this.paramNames = names.toArray(new String[0]);
+        this.endsWithSplat = path.endsWith("*");
+        this.endsWithSlash = path.endsWith("/");
+        // A trailing '*' has to be a whole segment, anything else (e.g. '/foo*') keeps the legacy semantics
+        this.regular = onlyPlainSegments
+                && (!endsWithSplat || (segments.length > 0 && kinds[segments.length - 1] == SPLAT));
+    }
+
+    /**
+     * Tokenizes a route path
+     *
+     * @param path the route path, e.g. '/books/:id'
+     * @return the compiled pattern
+     */
+    public static RoutePattern compile(String path) {
+        return new RoutePattern(path);
+    }
+
+    /**
+     * @return the route path this pattern was compiled from
+     */
+    public String path() {
+        return path;
+    }
+
+    /**
+     * @return a new capture array sized for this pattern, to be filled by {@link #capture(String, int[])}
+     */
+    public int[] newCaptures() {
+        return paramNames.length == 0 ? NO_CAPTURES : new int[paramNames.length * 2];
+    }
+
+    /**
+     * Returns the capture slot of a route param. If the param appears more than once, the last slot is returned.
+     *
+     * @param param the param name, with or without the leading ':'. Case insensitive.
+     * @return the slot, or -1 if the pattern has no such param
+     */
+    public int paramSlot(String param) {
+        return paramSlot(param, paramNames.length - 1);
+    }
+
+    /**
+     * Returns the capture slot of a route param, searching backwards from the given slot.
+     *
+     * @param param    the param name, with or without the leading ':'. Case insensitive.
+     * @param fromSlot the slot to start searching from
+     * @return the slot, or -1 if there is no such param at or before fromSlot
+     */
+    public int paramSlot(String param, int fromSlot) {
+        int offset = param.startsWith(":") ? 0 : 1;
+        int length = param.length() + offset;
+
+        for (int slot = fromSlot; slot >= 0; slot--) {
+            String name = paramNames[slot];
+            if (name != null && name.length() == length && name.regionMatches(true, offset, param, 0, param.length())) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param slot the capture slot
+     * @return the param name (lower case, with the leading ':') of the slot, null for splat slots
+     */
+    public String paramName(int slot) {
+        return paramNames[slot];
+    }
+
+    /**
+     * @return the number of capture slots
+     */
+    public int slotCount() {
+        return paramNames.length;
+    }
+
+    /**
+     * Checks if the requested path matches this pattern.
+     *
+     * @param requestPath the requested path
+     * @return true if it matches
+     */
+    public boolean matches(String requestPath) {
+        if (!endsWithSplat && (requestPath.endsWith("/") != endsWithSlash)) {
+            // One and not both ends with slash
+            return false;
+        }
+        if (path.equals(requestPath)) {
+            return true;
+        }
+        if (!regular) {
+            return matchesIrregular(requestPath);
+        }
+
+        int length = requestPath.length();
+        int position = 0;
+        int last = segments.length - 1;
+
+        for (int i = 0; i < segments.length; i++) {
+            int start = skipSlashes(requestPath, position);
+            if (start == length) {
+                // Hack for making wildcards work with trailing slash
+                return i == last && endsWithSplat && requestPath.endsWith("/");
+            }
+            if (i == last && endsWithSplat) {
+                // wildcard match
+                return true;
+            }
+            int end = segmentEnd(requestPath, start);
+            if (kinds[i] == LITERAL && !regionEquals(segments[i], requestPath, start, end)) {
+                return false;
+            }
+            position = end;
+        }
+
+        // All parts matched, nothing may be left
+        return skipSlashes(requestPath, position) == length;
+    }
+
+    /**
+     * Fills the capture array with the [start, end) index pair of every slot. Slots the requested path
+     * doesn't reach are set to -1. A trailing '*' captures the rest of the path.
+     *
+     * @param requestPath the requested path
+     * @param captures    an array created by {@link #newCaptures()}
+     */
+    public void capture(String requestPath, int[] captures) {
+        int length = requestPath.length();
+        int position = 0;
+        int last = segments.length - 1;
+
+        for (int i = 0; i < segments.length; i++) {
+            int start = skipSlashes(requestPath, position);
+            int slot = slots[i];
+
+            if (start == length) {
+                if (slot >= 0) {
+                    captures[slot * 2] = -1;
+                    captures[slot * 2 + 1] = -1;
+                }
+                position = length;
+                continue;
+            }
+
+            int end = segmentEnd(requestPath, start);
+            if (slot >= 0) {
+                int captureEnd = end;
+                if (i == last && kinds[i] == SPLAT) {
+                    captureEnd = length;
+                    while (captureEnd > start && requestPath.charAt(captureEnd - 1) == '/') {
+                        captureEnd--;
+                    }
+                }
+                captures[slot * 2] = start;
+                captures[slot * 2 + 1] = captureEnd;
+            }
+            position = end;
+        }
+    }
+
+    /**
+     * Returns the raw (not decoded) value captured for a slot. Empty segments in a splat are dropped.
+     *
+     * @param requestPath the requested path the captures were taken from
+     * @param captures    the captures
+     * @param slot        the slot
+     * @return the captured value, or null if nothing was captured
+     */
+    public static String captured(String requestPath, int[] captures, int slot) {
+        int start = captures[slot * 2];
+        int end = captures[slot * 2 + 1];
+        if (start < 0) {
+            return null;
+        }
+        String value = requestPath.substring(start, end);
+        if (value.contains("//")) {
+            return String.join("/", SpeckUtils.convertRouteToList(value));
+        }
+        return value;
+    }
+
+    boolean isRegular() {
+        return regular;
+    }
+
+    boolean endsWithSplat() {
+        return endsWithSplat;
+    }
+
+    boolean endsWithSlash() {
+        return endsWithSlash;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    String segment(int index) {
+        return segments[index];
+    }
+
+    boolean isLiteral(int index) {
+        return kinds[index] == LITERAL;
+    }
+
+    /**
+     * Tells whether this pattern matches every path the other pattern matches, judging from the segments only.
+     * Answers false when unsure, e.g. for irregular patterns.
+     *
+     * @param other the other pattern
+     * @return true if every path matched by other is matched by this pattern
+     */
+    boolean covers(RoutePattern other) {
+        if (!regular || !other.regular) {
+            return false;
+        }
+        if (!endsWithSplat) {
+            return !other.endsWithSplat
+                    && segments.length == other.segments.length
+                    && endsWithSlash == other.endsWithSlash
+                    && coversSegments(other, segments.length);
+        }
+        int prefix = segments.length - 1;
+        if (other.endsWithSplat) {
+            return prefix <= other.segments.length - 1 && coversSegments(other, prefix);
+        }
+        // A trailing splat needs at least one more segment, or none if the path ends with a slash
+        int length = other.segments.length;
+        return (length > prefix || (length == prefix && other.endsWithSlash)) && coversSegments(other, prefix);
+    }
+
+    /**
+     * Tells whether no path can be matched by both patterns, judging from the segments only.
+     * Answers false when unsure, e.g. for irregular patterns.
+     *
+     * @param other the other pattern
+     * @return true if the patterns have no path in common
+     */
+    boolean disjoint(RoutePattern other) {
+        if (!regular || !other.regular) {
+            return false;
+        }
+        if (!endsWithSplat && !other.endsWithSplat) {
+            if (segments.length != other.segments.length || endsWithSlash != other.endsWithSlash) {
+                return true;
+            }
+        } else if (!endsWithSplat) {
+            if (tooShortFor(this, other)) {
+                return true;
+            }
+        } else if (!other.endsWithSplat && tooShortFor(other, this)) {
+            return true;
+        }
+
+        int constrained = Math.min(constrainedSegments(), other.constrainedSegments());
+        for (int i = 0; i < constrained; i++) {
+            if (kinds[i] == LITERAL && other.kinds[i] == LITERAL && !segments[i].equals(other.segments[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean coversSegments(RoutePattern other, int count) {
+        for (int i = 0; i < count; i++) {
+            if (kinds[i] == LITERAL && (other.kinds[i] != LITERAL || !segments[i].equals(other.segments[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int constrainedSegments() {
+        return endsWithSplat ? segments.length - 1 : segments.length;
+    }
+
+    private static boolean tooShortFor(RoutePattern fixed, RoutePattern splat) {
+        int prefix = splat.segments.length - 1;
+        return fixed.segments.length < prefix || (fixed.segments.length == prefix && !fixed.endsWithSlash);
+    }
+
+    static int skipSlashes(String path, int from) {
+        int length = path.length();
+        int position = from;
+        while (position < length && path.charAt(position) == '/') {
+            position++;
+        }
+        return position;
+    }
+
+    static int segmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    static boolean regionEquals(String segment, String path, int start, int end) {
+        return segment.length() == end - start && path.regionMatches(start, segment, 0, segment.length());
+    }
+
+    private boolean matchesIrregular(String requestPath) { // NOSONAR
+        List<String> pathList = SpeckUtils.convertRouteToList(requestPath);
+
+        int thisPathSize = segments.length;
+        int pathSize = pathList.size();
+
+        if (thisPathSize == pathSize) {
+            for (int i = 0; i < thisPathSize; i++) {
+                String thisPathPart = segments[i];
+                String pathPart = pathList.get(i);
+
+                if ((i == thisPathSize - 1) && (thisPathPart.equals("*") && endsWithSplat)) {
+                    // wildcard match
+                    return true;
+                }
+
+                if ((!thisPathPart.startsWith(":"))
+                        && !thisPathPart.equals(pathPart)
+                        && !thisPathPart.equals("*")) {
+                    return false;
+                }
+            }
+            // All parts matched
+            return true;
+        } else {
+            // Number of "path parts" not the same
+            // check wild card:
+            if (endsWithSplat) {
+                if (pathSize == (thisPathSize - 1) && (requestPath.endsWith("/"))) {
+                    // Hack for making wildcards work with trailing slash
+                    pathList.add("");
+                    pathList.add("");
+                    pathSize += 2;
+                }
+
+                if (thisPathSize < pathSize) {
+                    for (int i = 0; i < thisPathSize; i++) {
+                        String thisPathPart = segments[i];
+                        String pathPart = pathList.get(i);
+                        if (thisPathPart.equals("*") && (i == thisPathSize - 1) && endsWithSplat) {
+                            // wildcard match
+                            return true;
+                        }
+                        if (!thisPathPart.startsWith(":")
+                                && !thisPathPart.equals(pathPart)
+                                && !thisPathPart.equals("*")) {
+                            return false;
+                        }
+                    }
+                    // All parts matched
+                    return true;
+                }
+                // End check wild card
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
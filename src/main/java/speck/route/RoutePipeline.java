@@ -0,0 +1,66 @@
+package speck.route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import speck.utils.SpeckUtils;
+
+/**
+ * The execution plan of a route: its before filters, after filters and afterAfter filters, in mapping order.
+ * Compiled once per route table for routes whose filters can be told from the patterns alone, i.e. every filter
+ * either matches all the paths of the route (e.g. '/api/*' for '/api/books/:id') or none of them
+ * (e.g. '/admin/*'). A request to such a route needs a single match to know everything it runs.
+ */
+final class RoutePipeline {
+
+    final RouteEntry route;
+    final RouteEntry[] before;
+    final RouteEntry[] after;
+    final RouteEntry[] afterAfter;
+
+    private RoutePipeline(RouteEntry route, RouteEntry[] before, RouteEntry[] after, RouteEntry[] afterAfter) {
+        this.route = route;
+        this.before = before;
+        this.after = after;
+        this.afterAfter = afterAfter;
+    }
+
+    /**
+     * @param route      the route
+     * @param before     the before filters, in mapping order
+     * @param after      the after filters, in mapping order
+     * @param afterAfter the afterAfter filters, in mapping order
+     * @return the pipeline, or null if whether a filter applies depends on the requested path
+     */
+    static RoutePipeline compile(RouteEntry route,
+                                 List<RouteEntry> before,
+                                 List<RouteEntry> after,
+                                 List<RouteEntry> afterAfter) {
+        RouteEntry[] beforeFilters = applicable(route, before);
+        if (beforeFilters == null) {
+            return null;
+        }
+        RouteEntry[] afterFilters = applicable(route, after);
+        if (afterFilters == null) {
+            return null;
+        }
+        RouteEntry[] afterAfterFilters = applicable(route, afterAfter);
+        if (afterAfterFilters == null) {
+            return null;
+        }
+        return new RoutePipeline(route, beforeFilters, afterFilters, afterAfterFilters);
+    }
+
+    private static RouteEntry[] applicable(RouteEntry route, List<RouteEntry> filters) {
+        RoutePattern pattern = route.pattern();
+        List<RouteEntry> applicable = new ArrayList<>();
+        for (RouteEntry filter : filters) {
+            if (filter.path.equals(SpeckUtils.ALL_PATHS) || filter.pattern().covers(pattern)) {
+                applicable.add(filter);
+            } else if (!filter.pattern().disjoint(pattern)) {
+                return null;
+            }
+        }
+        return applicable.toArray(new RouteEntry[0]);
+    }
+}
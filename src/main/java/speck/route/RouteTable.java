@@ -0,0 +1,138 @@
+package speck.route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import speck.utils.BoundedCache;
+
+/**
+ * Immutable snapshot of the mapped routes, in mapping order, together with everything derived from them:
+ * the per-method tries, the route pipelines and the content negotiation caches.
+ * {@link Routes} publishes a new snapshot on every change, so a lookup that started on an older snapshot
+ * finishes on it and never sees a half applied change.
+ */
+final class RouteTable {
+
+    static final RouteTable EMPTY = new RouteTable(List.of());
+
+    private static final int ACCEPT_CACHE_SIZE = 512;
+
+    final List<RouteEntry> entries;
+
+    // Content negotiation results, keyed by the candidate routes and the raw Accept header
+    final BoundedCache<Routes.AcceptKey, RouteEntry> bestAccepted = new BoundedCache<>(ACCEPT_CACHE_SIZE);
+    final BoundedCache<Routes.AcceptKey, List<RouteEntry>> allAccepted = new BoundedCache<>(ACCEPT_CACHE_SIZE);
+
+    // The http methods mapped for a requested path, for HEAD and OPTIONS requests without a route of their own
+    private final BoundedCache<String, Set<HttpMethod>> allowedMethods = new BoundedCache<>(ACCEPT_CACHE_SIZE);
+
+    // Compiled by the first lookup instead of on every change, so mapping routes one by one stays cheap.
+    // Two lookups racing on a fresh snapshot may both compile it, which is harmless: the result is the same.
+    private volatile Compiled compiled;
+
+    private RouteTable(List<RouteEntry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @param entries the routes, in mapping order
+     * @return a snapshot holding a copy of the given routes
+     */
+    static RouteTable of(List<RouteEntry> entries) {
+        return entries.isEmpty() ? EMPTY : new RouteTable(List.copyOf(entries));
+    }
+
+    /**
+     * Finds all entries matching the requested method and path, in mapping order.
+     *
+     * @param httpMethod the http method
+     * @param path       the requested path
+     * @return the matching entries
+     */
+    List<RouteEntry> find(HttpMethod httpMethod, String path) {
+        RouteTrie partition = compiled().partitions.get(httpMethod);
+        return partition != null ? partition.find(httpMethod, path) : List.of();
+    }
+
+    /**
+     * @param route a route of this table
+     * @return the pipeline of the route, or null if its filters have to be matched against each requested path
+     */
+    RoutePipeline pipeline(RouteEntry route) {
+        return compiled().pipelines.get(route);
+    }
+
+    /**
+     * Finds the http methods with a route, not a filter, matching the requested path. The accept type is ignored.
+     *
+     * @param path the requested path
+     * @return the methods, in declaration order
+     */
+    Set<HttpMethod> allowedMethods(String path) {
+        Set<HttpMethod> allowed = allowedMethods.get(path);
+        if (allowed == null) {
+            Compiled current = compiled();
+            EnumSet<HttpMethod> methods = EnumSet.noneOf(HttpMethod.class);
+            for (HttpMethod httpMethod : current.routeMethods) {
+                if (!current.partitions.get(httpMethod).find(httpMethod, path).isEmpty()) {
+                    methods.add(httpMethod);
+                }
+            }
+            allowed = Collections.unmodifiableSet(methods);
+            allowedMethods.put(path, allowed);
+        }
+        return allowed;
+    }
+
+    private Compiled compiled() {
+        Compiled current = compiled;
+        if (current == null) {
+            current = new Compiled(entries);
+            compiled = current;
+        }
+        return current;
+    }
+
+    private static final class Compiled {
+
+        // One trie per http method, so a lookup never walks the routes or filters of another method
+        private final Map<HttpMethod, RouteTrie> partitions = new EnumMap<>(HttpMethod.class);
+        private final Map<RouteEntry, RoutePipeline> pipelines = new IdentityHashMap<>();
+        private final Set<HttpMethod> routeMethods = EnumSet.noneOf(HttpMethod.class);
+
+        Compiled(List<RouteEntry> routes) {
+            Map<HttpMethod, List<RouteEntry>> byMethod = new EnumMap<>(HttpMethod.class);
+            for (RouteEntry entry : routes) {
+                byMethod.computeIfAbsent(entry.httpMethod, method -> new ArrayList<>()).add(entry);
+            }
+            for (Map.Entry<HttpMethod, List<RouteEntry>> entry : byMethod.entrySet()) {
+                partitions.put(entry.getKey(), RouteTrie.build(entry.getValue()));
+                if (!isFilter(entry.getKey())) {
+                    routeMethods.add(entry.getKey());
+                }
+            }
+
+            List<RouteEntry> before = byMethod.getOrDefault(HttpMethod.before, List.of());
+            List<RouteEntry> after = byMethod.getOrDefault(HttpMethod.after, List.of());
+            List<RouteEntry> afterAfter = byMethod.getOrDefault(HttpMethod.afterafter, List.of());
+            for (RouteEntry entry : routes) {
+                if (!isFilter(entry.httpMethod)) {
+                    RoutePipeline pipeline = RoutePipeline.compile(entry, before, after, afterAfter);
+                    if (pipeline != null) {
+                        pipelines.put(entry, pipeline);
+                    }
+                }
+            }
+        }
+
+        private static boolean isFilter(HttpMethod httpMethod) {
+            return httpMethod == HttpMethod.before || httpMethod == HttpMethod.after || httpMethod == HttpMethod.afterafter;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package speck.route;
+
+import java.util.Arrays;
+import java.util.List;
+
+import speck.utils.SpeckUtils;
+
+/**
+ * Segment based radix trie compiled from a snapshot of {@link RouteEntry} objects and their {@link RoutePattern}s.
+ * Literal segments, ':param' captures, '*' segments and trailing '*' splats are walked in one pass,
+ * so the cost of a lookup depends on the depth of the requested path instead of the number of routes.
+ * Patterns the trie can't express (e.g. a segment such as 'foo*') are kept aside and matched one by one.
+ * Candidates are returned in the order they were mapped, so the first mapped route still wins.
+ */
+final class RouteTrie {
+
+    private final RouteEntry[] entries;
+    private final Node root = new Node();
+    private final int[] fallback;
+
+    private RouteTrie(List<RouteEntry> routes) {
+        this.entries = routes.toArray(new RouteEntry[0]);
+
+        int[] unsupported = new int[entries.length];
+        int unsupportedCount = 0;
+
+        for (int i = 0; i < entries.length; i++) {
+            if (!insert(entries[i], i)) {
+                unsupported[unsupportedCount++] = i;
+            }
+        }
+        this.fallback = Arrays.copyOf(unsupported, unsupportedCount);
+    }
+
+    /**
+     * Compiles a trie from the given routes. The list order is the mapping order.
+     *
+     * @param routes the routes, in mapping order
+     * @return the trie
+     */
+    static RouteTrie build(List<RouteEntry> routes) {
+        return new RouteTrie(routes);
+    }
+
+    /**
+     * Finds all entries matching the requested method and path, in mapping order.
+     *
+     * @param httpMethod the http method
+     * @param path       the requested path
+     * @return the matching entries
+     */
+    List<RouteEntry> find(HttpMethod httpMethod, String path) {
+        Candidates candidates = new Candidates();
+        collect(root, httpMethod, path, 0, path.endsWith("/"), candidates);
+
+        for (int index : fallback) {
+            if (entries[index].matches(httpMethod, path)) {
+                candidates.add(index);
+            }
+        }
+
+        return candidates.toEntries(entries);
+    }
+
+    private boolean insert(RouteEntry entry, int index) {
+        RoutePattern pattern = entry.pattern();
+        if (!pattern.isRegular() || entry.path.equals(SpeckUtils.ALL_PATHS)) {
+            return false;
+        }
+
+        boolean splat = pattern.endsWithSplat();
+        int depth = splat ? pattern.segmentCount() - 1 : pattern.segmentCount();
+
+        Node node = root;
+        for (int i = 0; i < depth; i++) {
+            node = pattern.isLiteral(i) ? node.literal(pattern.segment(i)) : node.any();
+        }
+
+        if (splat) {
+            node.splats = Node.append(node.splats, index);
+        } else if (pattern.endsWithSlash()) {
+            node.endsWithSlash = Node.append(node.endsWithSlash, index);
+        } else {
+            node.endsWithoutSlash = Node.append(node.endsWithoutSlash, index);
+        }
+        return true;
+    }
+
+    private void collect(Node node,
+                         HttpMethod httpMethod,
+                         String path,
+                         int from,
+                         boolean pathEndsWithSlash,
+                         Candidates candidates) {
+        int start = RoutePattern.skipSlashes(path, from);
+
+        if (start == path.length()) {
+            // No segments left: only routes ending here, or splats allowed to match an empty trailing slash
+            add(node.endsWith(pathEndsWithSlash), httpMethod, candidates);
+            if (pathEndsWithSlash) {
+                add(node.splats, httpMethod, candidates);
+            }
+            return;
+        }
+
+        // A trailing splat consumes any number of the remaining segments
+        add(node.splats, httpMethod, candidates);
+
+        int end = RoutePattern.segmentEnd(path, start);
+
+        Node literal = node.literals.find(path, start, end);
+        if (literal != null) {
+            collect(literal, httpMethod, path, end, pathEndsWithSlash, candidates);
+        }
+        if (node.any != null) {
+            collect(node.any, httpMethod, path, end, pathEndsWithSlash, candidates);
+        }
+    }
+
+    private void add(int[] indexes, HttpMethod httpMethod, Candidates candidates) {
+        if (indexes == null) {
+            return;
+        }
+        for (int index : indexes) {
+            if (entries[index].httpMethod == httpMethod) {
+                candidates.add(index);
+            }
+        }
+    }
+
+    private static final class Node {
+
+        private final Literals literals = new Literals();
+        private Node any;
+
+        private int[] endsWithSlash;
+        private int[] endsWithoutSlash;
+        private int[] splats;
+
+        Node literal(String segment) {
+            Node child = literals.find(segment, 0, segment.length());
+            if (child == null) {
+                child = new Node();
+                literals.put(segment, child);
+            }
+            return child;
+        }
+
+        Node any() {
+            if (any == null) {
+                any = new Node();
+            }
+            return any;
+        }
+
+        int[] endsWith(boolean slash) {
+            return slash ? endsWithSlash : endsWithoutSlash;
+        }
+
+        static int[] append(int[] indexes, int index) {
+            if (indexes == null) {
+                return new int[]{index};
+            }
+            int[] result = Arrays.copyOf(indexes, indexes.length + 1);
+            result[indexes.length] = index;
+            return result;
+        }
+    }
+
+    /**
+     * Open addressing table from literal segment to child node. Lookups hash and compare a region of the
+     * requested path in place, so no substring is created while walking the trie.
+     */
+    private static final class Literals {
+
+        private String[] keys = new String[0];
+        private int[] hashes = new int[0];
+        private Node[] nodes = new Node[0];
+        private int size;
+
+        Node find(String path, int start, int end) {
+            if (size == 0) {
+                return null;
+            }
+            int hash = hash(path, start, end);
+            int mask = keys.length - 1;
+            for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+                if (hashes[i] == hash && RoutePattern.regionEquals(keys[i], path, start, end)) {
+                    return nodes[i];
+                }
+            }
+            return null;
+        }
+
+        void put(String key, Node node) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(Math.max(4, keys.length * 2));
+            }
+            insert(key, hash(key, 0, key.length()), node);
+            size++;
+        }
+
+        private void insert(String key, int hash, Node node) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            hashes[i] = hash;
+            nodes[i] = node;
+        }
+
+        private void resize(int capacity) {
+            String[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            Node[] oldNodes = nodes;
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            nodes = new Node[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    insert(oldKeys[i], oldHashes[i], oldNodes[i]);
+                }
+            }
+        }
+
+        private static int hash(String value, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * Collects matched indexes. Indexes reflect mapping order, so sorting them restores it.
+     */
+    private static final class Candidates {
+
+        private int[] indexes = new int[4];
+        private int size;
+
+        void add(int index) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+
+        List<RouteEntry> toEntries(RouteEntry[] entries) {
+            if (size == 0) {
+                return List.of();
+            }
+            if (size == 1) {
+                return List.of(entries[indexes[0]]);
+            }
+            Arrays.sort(indexes, 0, size);
+            RouteEntry[] result = new RouteEntry[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = entries[indexes[i]];
+            }
+            return Arrays.asList(result);
+        }
+    }
+}
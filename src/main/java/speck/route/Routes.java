@@ -21,6 +21,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import speck.FilterImpl;
 import speck.RouteImpl;
@@ -31,6 +33,12 @@ import speck.utils.StringUtils;
 /**
  * Holds the routes and performs matching from HTTP requests to routes.
  * Works as Sinatra's, ie. if there are more than one match the one that was mapped first is chosen.
+ * <p>
+ * Routes can be added and removed while requests are being served. Changes are published as a new immutable
+ * {@link RouteTable} by the next lookup, so lookups never see a half applied change, and mapping many routes
+ * before the first request copies them once rather than once per route. Lookups never wait for writers: while
+ * one holds the lock they keep using the previous routes. Use {@link #batch(Runnable)} to publish many changes
+ * at once even while requests are being served.
  *
  * @author Per Wendel
  */
@@ -38,8 +46,23 @@ public class Routes {
 
     private static final System.Logger LOG = System.getLogger(Routes.class.getName());;
     private static final char SINGLE_QUOTE = '\'';
+    private static final RouteEntry NOT_ACCEPTED = new RouteEntry();
 
-    private List<RouteEntry> routes;
+    // Read once per lookup, replaced as a whole when changes are published
+    private volatile RouteTable table = RouteTable.EMPTY;
+
+    // Serializes writers and publications, lookups only try it when there are changes to publish
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // The routes in mapping order, including the changes not published yet, guarded by writeLock
+    private final List<RouteEntry> entries = new ArrayList<>();
+    private boolean inBatch;
+
+    // Set when entries has changes that table doesn't have yet
+    private volatile boolean stale;
+
+    // Optional, see matchCache(int)
+    private volatile RouteMatchCache matchCache;
 
     public static Routes create() {
         return new Routes();
@@ -49,7 +72,6 @@ public class Routes {
      * Constructor
      */
     protected Routes() {
-        routes = new ArrayList<>();
     }
 
     /**
@@ -81,9 +103,7 @@ public class Routes {
      * @return the target
      */
     public RouteMatch find(HttpMethod httpMethod, String path, String acceptType) {
-        List<RouteEntry> routeEntries = this.findTargetsForRequestedRoute(httpMethod, path);
-        RouteEntry entry = findTargetWithGivenAcceptType(routeEntries, acceptType);
-        return entry != null ? new RouteMatch(entry.target, entry.path, path, acceptType, httpMethod) : null;
+        return find(table(), httpMethod, path, acceptType);
     }
 
     /**
@@ -95,22 +115,49 @@ public class Routes {
      * @return the targets
      */
     public List<RouteMatch> findMultiple(HttpMethod httpMethod, String path, String acceptType) {
-        List<RouteMatch> matchSet = new ArrayList<>();
-        List<RouteEntry> routeEntries = findTargetsForRequestedRoute(httpMethod, path);
+        return new ArrayList<>(findMultiple(table(), httpMethod, path, acceptType));
+    }
 
-        for (RouteEntry routeEntry : routeEntries) {
-            if (acceptType != null) {
-                String bestMatch = MimeParse.bestMatch(List.of(routeEntry.acceptedType), acceptType);
+    /**
+     * Finds the before filters, the route, the after filters and the afterAfter filters for a request at once,
+     * all of them from the same version of the routes. Uses the match cache if enabled.
+     *
+     * @param httpMethod the http method
+     * @param path       the raw path
+     * @param acceptType the accept type
+     * @return the matches, the route is null if none was found
+     */
+    public ResolvedRoute resolve(HttpMethod httpMethod, String path, String acceptType) {
+        RouteTable current = table();
+        RouteMatchCache cache = matchCache;
+        if (cache == null) {
+            return resolve(current, httpMethod, path, acceptType);
+        }
 
-                if (routeWithGivenAcceptType(bestMatch)) {
-                    matchSet.add(new RouteMatch(routeEntry.target, routeEntry.path, path, acceptType, httpMethod));
-                }
-            } else {
-                matchSet.add(new RouteMatch(routeEntry.target, routeEntry.path, path, acceptType, httpMethod));
-            }
+        RouteMatchCache.Key key = new RouteMatchCache.Key(httpMethod, path, acceptType);
+        ResolvedRoute resolved = cache.get(key, current);
+        if (resolved == null) {
+            resolved = resolve(current, httpMethod, path, acceptType);
+            cache.put(key, current, resolved);
         }
+        return resolved;
+    }
 
-        return matchSet;
+    /**
+     * Enables caching the result of {@link #resolve(HttpMethod, String, String)} for up to the given number of
+     * distinct requests, see {@link RouteMatchCache}. Replaces the current cache, if any.
+     *
+     * @param maxSize the maximum number of cached requests, 0 disables the cache
+     */
+    public void matchCache(int maxSize) {
+        matchCache = maxSize > 0 ? new RouteMatchCache(maxSize) : null;
+    }
+
+    /**
+     * @return the match cache, null if not enabled
+     */
+    public RouteMatchCache matchCache() {
+        return matchCache;
     }
 
     /**
@@ -118,7 +165,7 @@ public class Routes {
      */
     public List<RouteMatch> findAll() {
         List<RouteMatch> matchSet = new ArrayList<>();
-        List<RouteEntry> routeEntries = routes;
+        List<RouteEntry> routeEntries = table().entries;
 
         for (RouteEntry routeEntry : routeEntries) {
             matchSet.add(new RouteMatch(routeEntry.target, routeEntry.path, "ALL_ROUTES", routeEntry.acceptedType, routeEntry.httpMethod));
@@ -131,7 +178,44 @@ public class Routes {
      * ¨Clear all routes
      */
     public void clear() {
-        routes.clear();
+        writeLock.lock();
+        try {
+            entries.clear();
+            changed();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given registrations and publishes all the routes they add or remove at once, instead of
+     * rebuilding the route table after each of them. Lookups keep using the previous routes until the
+     * registrations are done. Other threads adding or removing routes wait for the batch to finish.
+     * Batches can be nested, the outermost one publishes.
+     *
+     * @param registrations the code adding or removing routes
+     */
+    public void batch(Runnable registrations) {
+        writeLock.lock();
+        try {
+            if (inBatch) {
+                registrations.run();
+                return;
+            }
+            if (stale) {
+                // So that lookups during the batch see the changes made before it
+                publish();
+            }
+            inBatch = true;
+            try {
+                registrations.run();
+            } finally {
+                inBatch = false;
+                publish();
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -188,12 +272,151 @@ public class Routes {
         entry.path = url;
         entry.target = target;
         entry.acceptedType = acceptedType;
+        entry.pattern = RoutePattern.compile(url);
+        entry.parsedAcceptedType = acceptedType != null ? MimeParse.parse(acceptedType) : null;
         LOG.log(System.Logger.Level.DEBUG,"Adds route: " + entry);
-        // Adds to end of list
-        routes.add(entry);
+        writeLock.lock();
+        try {
+            // Adds to end of list
+            entries.add(entry);
+            changed();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the routes as changed, the next lookup publishes them unless a batch does. Must be called holding
+     * writeLock.
+     */
+    private void changed() {
+        if (!inBatch) {
+            stale = true;
+        }
+    }
+
+    /**
+     * @return the routes lookups see, after publishing the changes if no writer is busy
+     */
+    private RouteTable table() {
+        if (stale && writeLock.tryLock()) {
+            try {
+                if (stale && !inBatch) {
+                    publish();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return the routes lookups currently see, without publishing any change
+     */
+    RouteTable published() {
+        return table;
+    }
+
+    /**
+     * Publishes the routes, must be called holding writeLock
+     */
+    private void publish() {
+        stale = false;
+        table = RouteTable.of(entries);
+        RouteMatchCache cache = matchCache;
+        if (cache != null) {
+            // Entries of older tables are never served, dropping them just frees the room early
+            cache.clear();
+        }
+    }
+
+    private RouteMatch find(RouteTable current, HttpMethod httpMethod, String path, String acceptType) {
+        List<RouteEntry> routeEntries = current.find(httpMethod, path);
+        RouteEntry entry = findTargetWithGivenAcceptType(current, routeEntries, acceptType);
+        return entry != null ? createMatch(entry, path, acceptType, httpMethod) : null;
+    }
+
+    private List<RouteMatch> findMultiple(RouteTable current, HttpMethod httpMethod, String path, String acceptType) {
+        return createMatches(current, current.find(httpMethod, path), httpMethod, path, acceptType);
+    }
+
+    private List<RouteMatch> createMatches(RouteTable current,
+                                           RouteEntry[] routeEntries,
+                                           HttpMethod httpMethod,
+                                           String path,
+                                           String acceptType) {
+        if (routeEntries.length == 0) {
+            return List.of();
+        }
+        return createMatches(current, Arrays.asList(routeEntries), httpMethod, path, acceptType);
+    }
+
+    /**
+     * @return the matches as an immutable list, sized for the handful of filters a request usually matches
+     */
+    private List<RouteMatch> createMatches(RouteTable current,
+                                           List<RouteEntry> routeEntries,
+                                           HttpMethod httpMethod,
+                                           String path,
+                                           String acceptType) {
+        if (acceptType != null && !routeEntries.isEmpty()) {
+            routeEntries = findTargetsWithGivenAcceptType(current, routeEntries, acceptType);
+        }
+
+        int size = routeEntries.size();
+        if (size == 0) {
+            return List.of();
+        }
+        if (size == 1) {
+            return List.of(createMatch(routeEntries.get(0), path, acceptType, httpMethod));
+        }
+        RouteMatch[] matchSet = new RouteMatch[size];
+        for (int i = 0; i < size; i++) {
+            matchSet[i] = createMatch(routeEntries.get(i), path, acceptType, httpMethod);
+        }
+        return List.of(matchSet);
+    }
+
+    private ResolvedRoute resolve(RouteTable current, HttpMethod httpMethod, String path, String acceptType) {
+        List<RouteEntry> routeEntries = current.find(httpMethod, path);
+        RouteEntry entry = findTargetWithGivenAcceptType(current, routeEntries, acceptType);
+        RouteMatch route = entry != null ? createMatch(entry, path, acceptType, httpMethod) : null;
+
+        if (entry == null && (httpMethod == HttpMethod.head || httpMethod == HttpMethod.options)) {
+            Set<HttpMethod> allowed = current.allowedMethods(path);
+            boolean servedByGet = httpMethod == HttpMethod.head
+                    && allowed.contains(HttpMethod.get)
+                    && findTargetWithGivenAcceptType(current, current.find(HttpMethod.get, path), acceptType) != null;
+            return new ResolvedRoute(findMultiple(current, HttpMethod.before, path, acceptType),
+                                     null,
+                                     findMultiple(current, HttpMethod.after, path, acceptType),
+                                     findMultiple(current, HttpMethod.afterafter, path, acceptType),
+                                     servedByGet,
+                                     allowed);
+        }
+
+        RoutePipeline pipeline = entry != null ? current.pipeline(entry) : null;
+        if (pipeline == null) {
+            // No route, or filters that depend on the requested path: match them one by one
+            return new ResolvedRoute(findMultiple(current, HttpMethod.before, path, acceptType),
+                                     route,
+                                     findMultiple(current, HttpMethod.after, path, acceptType),
+                                     findMultiple(current, HttpMethod.afterafter, path, acceptType));
+        }
+        return new ResolvedRoute(createMatches(current, pipeline.before, HttpMethod.before, path, acceptType),
+                                 route,
+                                 createMatches(current, pipeline.after, HttpMethod.after, path, acceptType),
+                                 createMatches(current, pipeline.afterAfter, HttpMethod.afterafter, path, acceptType));
+    }
+
+    private RouteMatch createMatch(RouteEntry entry, String path, String acceptType, HttpMethod httpMethod) {
+        RoutePattern pattern = entry.pattern();
+        int[] captures = pattern.newCaptures();
+        pattern.capture(path, captures);
+        return new RouteMatch(entry.target, pattern, path, captures, acceptType, httpMethod);
     }
 
-    //can be cached? I don't think so.
     private Map<String, RouteEntry> getAcceptedMimeTypes(List<RouteEntry> routes) {
         Map<String, RouteEntry> acceptedTypes = new HashMap<>();
 
@@ -210,27 +433,16 @@ public class Routes {
         return !MimeParse.NO_MIME_TYPE.equals(bestMatch);
     }
 
-    private List<RouteEntry> findTargetsForRequestedRoute(HttpMethod httpMethod, String path) {
-        List<RouteEntry> matchSet = new ArrayList<>();
-        for (RouteEntry entry : routes) {
-            if (entry.matches(httpMethod, path)) {
-                matchSet.add(entry);
-            }
-        }
-        return matchSet;
-    }
-
-    // TODO: I believe this feature has impacted performance. Optimization?
-    private RouteEntry findTargetWithGivenAcceptType(List<RouteEntry> routeMatches, String acceptType) {
+    private RouteEntry findTargetWithGivenAcceptType(RouteTable current, List<RouteEntry> routeMatches, String acceptType) {
         if (acceptType != null && routeMatches.size() > 0) {
-            Map<String, RouteEntry> acceptedMimeTypes = getAcceptedMimeTypes(routeMatches);
-            String bestMatch = MimeParse.bestMatch(acceptedMimeTypes.keySet(), acceptType);
-
-            if (routeWithGivenAcceptType(bestMatch)) {
-                return acceptedMimeTypes.get(bestMatch);
-            } else {
-                return null;
+            // Clients send a handful of distinct Accept headers, so negotiation results are cached
+            AcceptKey key = new AcceptKey(routeMatches, acceptType);
+            RouteEntry cached = current.bestAccepted.get(key);
+            if (cached == null) {
+                cached = negotiate(routeMatches, acceptType);
+                current.bestAccepted.put(key, cached);
             }
+            return cached != NOT_ACCEPTED ? cached : null;
         } else {
             if (routeMatches.size() > 0) {
                 return routeMatches.get(0);
@@ -240,25 +452,68 @@ public class Routes {
         return null;
     }
 
-    private boolean removeRoute(HttpMethod httpMethod, String path) {
-        List<RouteEntry> forRemoval = new ArrayList<>();
+    private RouteEntry negotiate(List<RouteEntry> routeMatches, String acceptType) {
+        Map<String, RouteEntry> acceptedMimeTypes = getAcceptedMimeTypes(routeMatches);
 
-        for (RouteEntry routeEntry : routes) {
-            HttpMethod httpMethodToMatch = httpMethod;
+        List<MimeParse.ParseResults> supported = new ArrayList<>(acceptedMimeTypes.size());
+        for (RouteEntry routeEntry : acceptedMimeTypes.values()) {
+            supported.add(routeEntry.parsedAcceptedType());
+        }
+        String bestMatch = MimeParse.bestMatch(supported, acceptType);
 
-            if (httpMethod == null) {
-                // Use the routeEntry's HTTP method if none was given, so that only path is used to match.
-                httpMethodToMatch = routeEntry.httpMethod;
-            }
+        if (routeWithGivenAcceptType(bestMatch)) {
+            return acceptedMimeTypes.get(bestMatch);
+        } else {
+            return NOT_ACCEPTED;
+        }
+    }
 
-            if (routeEntry.matches(httpMethodToMatch, path)) {
-                LOG.log(System.Logger.Level.DEBUG,"Removing path {0}", path, httpMethod == null ? "" : " with HTTP method " + httpMethod);
+    private List<RouteEntry> findTargetsWithGivenAcceptType(RouteTable current,
+                                                            List<RouteEntry> routeMatches,
+                                                            String acceptType) {
+        AcceptKey key = new AcceptKey(routeMatches, acceptType);
+        List<RouteEntry> cached = current.allAccepted.get(key);
+        if (cached == null) {
+            List<RouteEntry> accepted = new ArrayList<>(routeMatches.size());
+            for (RouteEntry routeEntry : routeMatches) {
+                String bestMatch = MimeParse.bestMatch(List.of(routeEntry.parsedAcceptedType()), acceptType);
 
-                forRemoval.add(routeEntry);
+                if (routeWithGivenAcceptType(bestMatch)) {
+                    accepted.add(routeEntry);
+                }
             }
+            cached = List.copyOf(accepted);
+            current.allAccepted.put(key, cached);
         }
+        return cached;
+    }
 
-        return routes.removeAll(forRemoval);
+    private boolean removeRoute(HttpMethod httpMethod, String path) {
+        writeLock.lock();
+        try {
+            boolean removed = entries.removeIf(routeEntry -> shouldRemove(routeEntry, httpMethod, path));
+            if (removed) {
+                changed();
+            }
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static boolean shouldRemove(RouteEntry routeEntry, HttpMethod httpMethod, String path) {
+        HttpMethod httpMethodToMatch = httpMethod;
+
+        if (httpMethod == null) {
+            // Use the routeEntry's HTTP method if none was given, so that only path is used to match.
+            httpMethodToMatch = routeEntry.httpMethod;
+        }
+
+        if (routeEntry.matches(httpMethodToMatch, path)) {
+            LOG.log(System.Logger.Level.DEBUG,"Removing path {0}", path, httpMethod == null ? "" : " with HTTP method " + httpMethod);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -292,4 +547,10 @@ public class Routes {
             LOG.log(System.Logger.Level.ERROR,"The @Route value: " + route + " is not in the correct format", e);
         }
     }
+
+    /**
+     * Candidate routes are compared by identity, so a key only matches lookups that found the very same routes.
+     */
+    record AcceptKey(List<RouteEntry> candidates, String acceptType) {
+    }
 }
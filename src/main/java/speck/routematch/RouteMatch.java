@@ -17,6 +17,7 @@
 package speck.routematch;
 
 import speck.route.HttpMethod;
+import speck.route.RoutePattern;
 
 /**
  * @author Per Wendel
@@ -28,6 +29,8 @@ public class RouteMatch {
     private String requestURI;
     private String acceptType;
     private HttpMethod httpMethod;
+    private RoutePattern pattern;
+    private int[] captures;
 
     public RouteMatch(Object target, String matchUri, String requestUri, String acceptType) {
         this(target, matchUri, requestUri, acceptType, null);
@@ -42,6 +45,22 @@ public class RouteMatch {
         this.httpMethod = httpMethod;
     }
 
+    /**
+     * Constructor for a match whose route params were already captured
+     *
+     * @param target     the target
+     * @param pattern    the compiled route path
+     * @param requestUri the requested path
+     * @param captures   the captures of the requested path, see {@link RoutePattern#capture(String, int[])}
+     * @param acceptType the accept type
+     * @param httpMethod the http method
+     */
+    public RouteMatch(Object target, RoutePattern pattern, String requestUri, int[] captures, String acceptType, HttpMethod httpMethod) {
+        this(target, pattern.path(), requestUri, acceptType, httpMethod);
+        this.pattern = pattern;
+        this.captures = captures;
+    }
+
     /**
      * @return the accept type
      */
@@ -79,5 +98,26 @@ public class RouteMatch {
         return requestURI;
     }
 
+    /**
+     * @return the compiled matchUri
+     */
+    public RoutePattern getPattern() {
+        if (pattern == null) {
+            pattern = RoutePattern.compile(matchUri);
+        }
+        return pattern;
+    }
+
+    /**
+     * @return the [start, end) index pairs of the route params and splats within the requestUri, by slot
+     */
+    public int[] getCaptures() {
+        if (captures == null) {
+            int[] captured = getPattern().newCaptures();
+            getPattern().capture(requestURI, captured);
+            captures = captured;
+        }
+        return captures;
+    }
 
 }
@@ -19,17 +19,32 @@ package speck.serialization;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import speck.utils.BufferPool;
 
 /**
- * Bytes serializer.
+ * Bytes serializer. Handles byte arrays, ByteBuffers, ByteBuffer arrays and lists of ByteBuffers.
+ * <p>
+ * Only the bytes between position and limit of a buffer are sent, and the buffer itself is left untouched, so
+ * a pre-rendered payload can be returned by any number of requests. Buffers are handed to the output as they are
+ * if it is a channel, with a gather write for several buffers. Otherwise heap buffers are written straight from
+ * their backing array, and only direct and read-only buffers are copied, through a pooled chunk.
  *
  * @author alex
  */
 class BytesSerializer extends Serializer {
 
+    private static final int CHUNK_SIZE = 16 * 1024;
+
     @Override
     public boolean canProcess(Object element) {
-        return element instanceof byte[] || element instanceof ByteBuffer;
+        return element instanceof byte[]
+                || element instanceof ByteBuffer
+                || element instanceof ByteBuffer[]
+                || isBufferList(element);
     }
 
     @Override
@@ -37,9 +52,101 @@ class BytesSerializer extends Serializer {
             throws IOException {
         if (element instanceof byte[] bytes) {
             outputStream.write(bytes);
-        } else if (element instanceof ByteBuffer byteBuffer){
-            outputStream.write(byteBuffer.array());
+        } else if (element instanceof ByteBuffer byteBuffer) {
+            write(outputStream, new ByteBuffer[]{byteBuffer});
+        } else if (element instanceof ByteBuffer[] byteBuffers) {
+            write(outputStream, byteBuffers);
+        } else if (element instanceof List<?> list) {
+            write(outputStream, list.toArray(new ByteBuffer[0]));
+        }
+    }
+
+    @Override
+    public long contentLength(Object element) {
+        if (element instanceof byte[] bytes) {
+            return bytes.length;
+        } else if (element instanceof ByteBuffer byteBuffer) {
+            return byteBuffer.remaining();
+        } else if (element instanceof ByteBuffer[] byteBuffers) {
+            return remaining(List.of(byteBuffers));
+        } else if (element instanceof List<?> list) {
+            return remaining(list);
+        }
+        return -1;
+    }
+
+    private static void write(OutputStream outputStream, ByteBuffer[] byteBuffers) throws IOException {
+        if (outputStream instanceof WritableByteChannel channel) {
+            write(channel, byteBuffers);
+            return;
+        }
+
+        byte[] chunk = null;
+        try {
+            for (ByteBuffer byteBuffer : byteBuffers) {
+                int position = byteBuffer.position();
+                int remaining = byteBuffer.remaining();
+                if (byteBuffer.hasArray()) {
+                    outputStream.write(byteBuffer.array(), byteBuffer.arrayOffset() + position, remaining);
+                    continue;
+                }
+                // Direct or read-only, the bytes can't be reached without a copy
+                if (chunk == null && remaining > 0) {
+                    chunk = BufferPool.shared().acquire(Math.min(CHUNK_SIZE, remaining));
+                }
+                while (remaining > 0) {
+                    int length = Math.min(chunk.length, remaining);
+                    byteBuffer.get(position, chunk, 0, length);
+                    outputStream.write(chunk, 0, length);
+                    position += length;
+                    remaining -= length;
+                }
+            }
+        } finally {
+            BufferPool.shared().release(chunk);
+        }
+    }
+
+    private static void write(WritableByteChannel channel, ByteBuffer[] byteBuffers) throws IOException {
+        // Duplicates, so the positions of the buffers handed in don't move
+        ByteBuffer[] duplicates = new ByteBuffer[byteBuffers.length];
+        long remaining = 0;
+        for (int i = 0; i < byteBuffers.length; i++) {
+            duplicates[i] = byteBuffers[i].duplicate();
+            remaining += duplicates[i].remaining();
+        }
+
+        if (channel instanceof GatheringByteChannel gathering) {
+            while (remaining > 0) {
+                remaining -= gathering.write(duplicates);
+            }
+        } else {
+            for (ByteBuffer duplicate : duplicates) {
+                while (duplicate.hasRemaining()) {
+                    channel.write(duplicate);
+                }
+            }
+        }
+    }
+
+    private static boolean isBufferList(Object element) {
+        if (!(element instanceof List<?> list) || list.isEmpty()) {
+            return false;
+        }
+        for (Object item : list) {
+            if (!(item instanceof ByteBuffer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long remaining(List<?> byteBuffers) {
+        long remaining = 0;
+        for (Object byteBuffer : byteBuffers) {
+            remaining += ((ByteBuffer) byteBuffer).remaining();
         }
+        return remaining;
     }
 
 }
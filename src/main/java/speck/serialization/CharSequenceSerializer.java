@@ -0,0 +1,111 @@
+package speck.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import speck.utils.BufferPool;
+
+/**
+ * Writes strings, string builders and any other CharSequence in UTF-8, as {@link DefaultSerializer} does for
+ * {@code toString()}, but encoding chunk by chunk instead of copying the whole text into a byte array first.
+ * A large page therefore costs its chars plus two pooled chunks, not its chars plus all its bytes.
+ * <p>
+ * Chars are copied in bulk where the CharSequence allows it and go through the JDK encoder, whose ASCII and
+ * Latin-1 loops are intrinsified. Unpaired surrogates are written as '?', like
+ * {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+class CharSequenceSerializer extends Serializer {
+
+    // Up to this length the text is encoded at once, which is faster and allocates no more than the chunks
+    private static final int SMALL = 1024;
+    // Bytes per chunk, the chars are a third of that
+    private static final int CHUNK_SIZE = 8 * 1024;
+    // Longest UTF-8 sequence per char, a surrogate pair takes 4 bytes for 2 chars
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    @Override
+    public boolean canProcess(Object element) {
+        return element instanceof CharSequence;
+    }
+
+    @Override
+    public void process(OutputStream outputStream, Object element) throws IOException {
+        write(outputStream, (CharSequence) element);
+    }
+
+    /**
+     * Writes the chars in UTF-8.
+     *
+     * @param outputStream the output stream.
+     * @param text         the chars.
+     * @throws IOException in the case of IO error.
+     */
+    static void write(OutputStream outputStream, CharSequence text) throws IOException {
+        int length = text.length();
+        if (length <= SMALL) {
+            outputStream.write(text.toString().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        byte[] bytes = BufferPool.shared().acquire(CHUNK_SIZE);
+        char[] chars = BufferPool.shared().acquireChars(bytes.length / MAX_BYTES_PER_CHAR);
+        try {
+            int chunk = bytes.length / MAX_BYTES_PER_CHAR;
+            CharBuffer in = CharBuffer.wrap(chars);
+            ByteBuffer out = ByteBuffer.wrap(bytes);
+
+            int carried = 0;
+            int index = 0;
+            while (true) {
+                int count = Math.min(chunk - carried, length - index);
+                getChars(text, index, index + count, chars, carried);
+                index += count;
+                boolean last = index == length;
+
+                in.limit(carried + count).position(0);
+                // The bytes always fit, so the encoder only stops short of a high surrogate whose pair is in the next chunk
+                encoder.encode(in, out, last);
+                if (last) {
+                    encoder.flush(out);
+                }
+                outputStream.write(bytes, 0, out.position());
+                out.clear();
+                if (last) {
+                    return;
+                }
+                carried = in.remaining();
+                if (carried > 0) {
+                    chars[0] = chars[in.position()];
+                }
+            }
+        } finally {
+            BufferPool.shared().release(chars);
+            BufferPool.shared().release(bytes);
+        }
+    }
+
+    private static void getChars(CharSequence text, int start, int end, char[] chars, int offset) {
+        if (text instanceof String string) {
+            string.getChars(start, end, chars, offset);
+        } else if (text instanceof StringBuilder builder) {
+            builder.getChars(start, end, chars, offset);
+        } else if (text instanceof StringBuffer buffer) {
+            buffer.getChars(start, end, chars, offset);
+        } else if (text instanceof CharBuffer buffer) {
+            buffer.get(buffer.position() + start, chars, offset, end - start);
+        } else {
+            for (int i = start; i < end; i++) {
+                chars[offset++] = text.charAt(i);
+            }
+        }
+    }
+
+}
@@ -18,10 +18,9 @@ package speck.serialization;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 
 /**
- * Serializer that writes the result of toString to output in UTF-8 encoding
+ * Serializer that writes the result of toString to output in UTF-8 encoding, see {@link CharSequenceSerializer}
  *
  * @author alex
  */
@@ -34,7 +33,7 @@ class DefaultSerializer extends Serializer {
 
     @Override
     public void process(OutputStream outputStream, Object element) throws IOException {
-        outputStream.write(element.toString().getBytes(StandardCharsets.UTF_8));
+        CharSequenceSerializer.write(outputStream, element.toString());
     }
 
 }
@@ -0,0 +1,29 @@
+package speck.serialization;
+
+import java.nio.file.Path;
+
+/**
+ * A part of a file to be sent as response body, e.g. for serving a range of a big artifact.
+ * Return it from a route like a Path: the bytes are copied from the file straight to the response,
+ * with a Content-Length and a Content-Type guessed from the file name.
+ *
+ * @param path   the file
+ * @param offset the position of the first byte to send
+ * @param length the number of bytes to send
+ */
+public record FileRegion(Path path, long offset, long length) {
+
+    /**
+     * Constructor
+     *
+     * @throws IllegalArgumentException if path is null or offset or length is negative
+     */
+    public FileRegion {
+        if (path == null) {
+            throw new IllegalArgumentException("path cannot be null");
+        }
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("offset and length cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package speck.serialization;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Serializer for {@link Flow.Publisher} results, e.g. of ByteBuffers or strings. Each item is written by the
+ * serializer of its class.
+ * <p>
+ * Items are requested one at a time, and the next one only once the previous one was written, which blocks as long
+ * as the client doesn't read. A publisher that honors demand is therefore slowed down to the pace of the client
+ * instead of piling up items in memory. The output is flushed whenever the next item isn't there yet.
+ * <p>
+ * The subscription is cancelled if writing fails, which is how a client disconnecting shows up, or if the request
+ * thread is interrupted. An error signalled by the publisher fails the response with an IOException.
+ */
+class PublisherSerializer extends Serializer {
+
+    private final SerializerChain chain;
+
+    PublisherSerializer(SerializerChain chain) {
+        this.chain = chain;
+    }
+
+    @Override
+    public boolean canProcess(Object element) {
+        return element instanceof Flow.Publisher;
+    }
+
+    @Override
+    public boolean streams(Object element) {
+        return true;
+    }
+
+    @Override
+    public void process(OutputStream outputStream, Object element) throws IOException {
+        Subscriber subscriber = new Subscriber();
+        ((Flow.Publisher<?>) element).subscribe(subscriber);
+
+        Flow.Subscription subscription = null;
+        try {
+            Object signal = subscriber.take();
+            if (!(signal instanceof Flow.Subscription first)) {
+                finish(signal);
+                return;
+            }
+            subscription = first;
+            subscription.request(1);
+            while (true) {
+                signal = subscriber.poll();
+                if (signal == null) {
+                    // Nothing ready, send what was written so far while waiting
+                    outputStream.flush();
+                    signal = subscriber.take();
+                }
+                if (signal instanceof Terminal) {
+                    subscription = null;
+                    finish(signal);
+                    return;
+                }
+                chain.serializerFor(signal, null).process(outputStream, signal);
+                subscription.request(1);
+            }
+        } finally {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    /**
+     * Subscribes only to cancel right away, so that the publisher stops and releases what it holds.
+     */
+    @Override
+    public void discard(Object element) {
+        ((Flow.Publisher<?>) element).subscribe(new Flow.Subscriber<Object>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.cancel();
+            }
+
+            @Override
+            public void onNext(Object item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    private static void finish(Object signal) throws IOException {
+        if (signal instanceof Terminal terminal && terminal.error != null) {
+            throw new IOException("Publisher failed", terminal.error);
+        }
+    }
+
+    private record Terminal(Throwable error) {
+    }
+
+    /**
+     * Hands the signals of the publisher over to the request thread.
+     */
+    private static final class Subscriber implements Flow.Subscriber<Object> {
+
+        private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            signals.add(subscription);
+        }
+
+        @Override
+        public void onNext(Object item) {
+            if (item != null) {
+                signals.add(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            signals.add(new Terminal(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add(new Terminal(null));
+        }
+
+        Object poll() {
+            return signals.poll();
+        }
+
+        Object take() throws InterruptedIOException {
+            try {
+                return signals.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the publisher");
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package speck.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.BaseStream;
+
+/**
+ * Serializer for Streams, Iterators and Iterables, written element by element as they are produced, so a result
+ * set of millions of rows needs no more memory than one row. The format follows the Content-Type of the response:
+ * <ul>
+ * <li>application/json, a JSON array</li>
+ * <li>application/x-ndjson, one JSON value per line</li>
+ * <li>text/csv, one row per element: the items of an array or Iterable element, or the element itself</li>
+ * </ul>
+ * Elements are written by the serializer registered for their class and application/json, or text/csv, if any,
+ * e.g. a JSON mapper. Otherwise numbers, booleans and null are written as such, anything else as a JSON string
+ * or CSV field of its toString().
+ * <p>
+ * The output is flushed after the first element, then after each element that comes once the flush interval of
+ * the chain has elapsed since the previous flush. Elements already written stay buffered while the next one is
+ * being produced, so for producers that may stall a zero interval, which flushes every element, fits better.
+ * Streams, and Iterators that are AutoCloseable, are closed once written, also when writing fails because the
+ * client went away.
+ */
+class SequenceSerializer extends Serializer {
+
+    /**
+     * The formats, by media type
+     */
+    enum Format {
+        JSON_ARRAY("application/json"),
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        // The media type the elements are serialized for
+        String elementMediaType() {
+            return this == CSV ? "text/csv" : "application/json";
+        }
+    }
+
+    // Text is gathered up to this size before being written
+    private static final int BATCH_SIZE = 4 * 1024;
+
+    private final SerializerChain chain;
+    private final Format format;
+
+    SequenceSerializer(SerializerChain chain, Format format) {
+        this.chain = chain;
+        this.format = format;
+    }
+
+    @Override
+    public boolean canProcess(Object element) {
+        return element instanceof BaseStream || element instanceof Iterator || element instanceof Iterable;
+    }
+
+    @Override
+    public boolean streams(Object element) {
+        return true;
+    }
+
+    @Override
+    public String contentType(Object element) {
+        return format.mediaType;
+    }
+
+    @Override
+    public void process(OutputStream outputStream, Object element) throws IOException {
+        Iterator<?> iterator;
+        if (element instanceof BaseStream<?, ?> stream) {
+            try (stream) {
+                write(outputStream, stream.iterator());
+            }
+            return;
+        } else if (element instanceof Iterator<?> elements) {
+            iterator = elements;
+        } else {
+            iterator = ((Iterable<?>) element).iterator();
+        }
+
+        if (!(iterator instanceof AutoCloseable closeable)) {
+            write(outputStream, iterator);
+            return;
+        }
+        try {
+            write(outputStream, iterator);
+        } catch (Throwable failure) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                failure.addSuppressed(e);
+            }
+            throw failure;
+        }
+        close(closeable);
+    }
+
+    private void write(OutputStream outputStream, Iterator<?> iterator) throws IOException {
+        long flushInterval = chain.flushIntervalNanos();
+        // So that the first element is flushed right away
+        long lastFlush = System.nanoTime() - flushInterval;
+        StringBuilder text = new StringBuilder(64);
+        String elementMediaType = format.elementMediaType();
+
+        if (format == Format.JSON_ARRAY) {
+            text.append('[');
+        }
+        boolean first = true;
+        while (iterator.hasNext()) {
+            Object element = iterator.next();
+            if (format == Format.JSON_ARRAY && !first) {
+                text.append(',');
+            }
+            first = false;
+
+            Serializer serializer = element != null ? chain.registeredFor(element, elementMediaType) : null;
+            if (serializer != null) {
+                drain(outputStream, text);
+                serializer.process(outputStream, element);
+            } else if (format == Format.CSV) {
+                appendRow(text, element);
+            } else {
+                appendJson(text, element);
+            }
+            if (format == Format.CSV) {
+                text.append("\r\n");
+            } else if (format == Format.NDJSON) {
+                text.append('\n');
+            }
+
+            if (text.length() >= BATCH_SIZE) {
+                drain(outputStream, text);
+            }
+            if (System.nanoTime() - lastFlush >= flushInterval) {
+                drain(outputStream, text);
+                outputStream.flush();
+                lastFlush = System.nanoTime();
+            }
+        }
+        if (format == Format.JSON_ARRAY) {
+            text.append(']');
+        }
+        drain(outputStream, text);
+    }
+
+    private static void drain(OutputStream outputStream, StringBuilder text) throws IOException {
+        if (!text.isEmpty()) {
+            CharSequenceSerializer.write(outputStream, text);
+            text.setLength(0);
+        }
+    }
+
+    private static void appendJson(StringBuilder text, Object element) {
+        if (element == null || element instanceof Boolean || isFinite(element)) {
+            text.append(element);
+            return;
+        }
+        String value = element.toString();
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> text.append("\\\"");
+                case '\\' -> text.append("\\\\");
+                case '\n' -> text.append("\\n");
+                case '\r' -> text.append("\\r");
+                case '\t' -> text.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        text.append(c);
+                    }
+                }
+            }
+        }
+        text.append('"');
+    }
+
+    private static boolean isFinite(Object element) {
+        if (element instanceof Double number) {
+            return Double.isFinite(number);
+        } else if (element instanceof Float number) {
+            return Float.isFinite(number);
+        }
+        return element instanceof Number;
+    }
+
+    private static void appendRow(StringBuilder text, Object element) {
+        if (element instanceof Object[] fields) {
+            for (int i = 0; i < fields.length; i++) {
+                if (i > 0) {
+                    text.append(',');
+                }
+                appendField(text, fields[i]);
+            }
+        } else if (element instanceof Iterable<?> fields) {
+            boolean first = true;
+            for (Object field : fields) {
+                if (!first) {
+                    text.append(',');
+                }
+                first = false;
+                appendField(text, field);
+            }
+        } else {
+            appendField(text, element);
+        }
+    }
+
+    // RFC 4180: fields with separators, quotes or line breaks are quoted, and quotes doubled
+    private static void appendField(StringBuilder text, Object field) {
+        if (field == null) {
+            return;
+        }
+        String value = field.toString();
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            text.append(value);
+            return;
+        }
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                text.append('"');
+            }
+            text.append(c);
+        }
+        text.append('"');
+    }
+
+    private static void close(AutoCloseable closeable) throws IOException {
+        try {
+            closeable.close();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -26,48 +26,72 @@ import java.io.OutputStream;
  */
 public abstract class Serializer {
 
-    private Serializer next;
-
     /**
-     * Sets the next serializer in the chain.
+     * Checks if the serializer implementation can process the element type.
      *
-     * @param serializer the next serializer.
+     * @param element the element to process.
+     * @return true if the serializer can process the provided element.
      */
-    public void setNext(Serializer serializer) {
-        this.next = serializer;
-    }
+    public abstract boolean canProcess(Object element);
 
     /**
-     * Wraps {@link Serializer#process(java.io.OutputStream, Object)} and calls next serializer in chain.
+     * Processes the provided element and serializes to output stream.
      *
      * @param outputStream the output stream.
-     * @param element      the element to process.
-     * @throws IOException IOException in case of IO error.
+     * @param element      the element.
+     * @throws IOException In the case of IO error.
      */
-    public void processElement(OutputStream outputStream, Object element) throws IOException {
-        if (canProcess(element)) {
-            process(outputStream, element);
-        } else {
-            if (next != null) {
-                this.next.processElement(outputStream, element);
-            }
-        }
+    public abstract void process(OutputStream outputStream, Object element) throws IOException;
+
+    /**
+     * Tells how many bytes {@link #process(OutputStream, Object)} will write for the element, if known without
+     * serializing it, e.g. for byte arrays. The response is then sent with a Content-Length right away.
+     *
+     * @param element the element.
+     * @return the number of bytes, or -1 if unknown.
+     */
+    public long contentLength(Object element) {
+        return -1;
     }
 
     /**
-     * Checks if the serializer implementation can process the element type.
+     * Tells whether the element is written bit by bit over time, e.g. the rows of a query, flushing as it goes.
+     * The response is then sent in chunks right away, instead of being buffered to send a Content-Length.
      *
-     * @param element the element to process.
-     * @return true if the serializer can process the provided element.
+     * @param element the element.
+     * @return true if the output should reach the client as it's flushed.
      */
-    public abstract boolean canProcess(Object element);
+    public boolean streams(Object element) {
+        return false;
+    }
 
     /**
-     * Processes the provided element and serializes to output stream.
+     * Releases the element without serializing it, e.g. when the response to a HEAD request sends headers only.
+     * Elements that hold resources until written, such as streams and open files, are closed.
      *
-     * @param outputStream the output stream.
-     * @param element      the element.
+     * @param element the element.
      * @throws IOException In the case of IO error.
      */
-    public abstract void process(OutputStream outputStream, Object element) throws IOException;
+    public void discard(Object element) throws IOException {
+        if (element instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Tells the content type of the element, if it can tell, e.g. from a file name. Only used if the
+     * response has no Content-Type and guessing is on, see {@link speck.staticfiles.MimeType#shouldGuess()}.
+     *
+     * @param element the element.
+     * @return the content type, or null to let Speck guess.
+     */
+    public String contentType(Object element) {
+        return null;
+    }
 }
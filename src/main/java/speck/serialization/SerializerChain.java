@@ -17,29 +17,125 @@
 package speck.serialization;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+import java.util.stream.BaseStream;
 
 /**
- * Chain of serializers for the output.
+ * Registry of the serializers for the output, indexed by the class of the element to serialize.
+ * <p>
+ * Serializers registered by the user come first, in registration order, then the built-in ones: bytes and
+ * buffers, files, input streams, text, sequences, publishers and finally {@link Object#toString()}. The serializers that may apply to a class
+ * are worked out once per class and cached, so picking the serializer for an element is a single lookup followed
+ * by a {@link Serializer#canProcess(Object)} check on the few candidates, usually one.
  */
 public final class SerializerChain {
 
-    private final Serializer root;
+    private static final Serializer DEFAULT = new DefaultSerializer();
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(200);
+
+    private final List<Registration> builtIn = builtIn();
+    private final List<Registration> registered = new ArrayList<>();
+
+    // Replaced on every registration, a ClassValue can't forget the classes it computed
+    private volatile Dispatch dispatch = new Dispatch(builtIn);
+    private volatile long flushIntervalNanos = DEFAULT_FLUSH_INTERVAL.toNanos();
 
     /**
-     * Constructs a serializer chain.
+     * Constructs a serializer chain with the built-in serializers only.
      */
     public SerializerChain() {
+        // nothing registered yet
+    }
+
+    /**
+     * Sets how often the serializers that write a body bit by bit, e.g. the elements of a Stream, flush the output,
+     * so that the client gets the first elements while the next ones are produced. 200 ms by default.
+     *
+     * @param interval the minimum time between two flushes, zero flushes after every element
+     */
+    public void flushInterval(Duration interval) {
+        if (interval == null || interval.isNegative()) {
+            throw new IllegalArgumentException("interval must not be negative");
+        }
+        flushIntervalNanos = interval.toNanos();
+    }
 
-        DefaultSerializer defaultSerializer = new DefaultSerializer();
+    /**
+     * Registers a serializer for a class and its subclasses. It takes precedence over the built-in serializers and
+     * over serializers registered later for the same elements.
+     *
+     * @param type        the class of the elements to serialize
+     * @param contentType if not null the serializer only applies to responses with this media type, e.g.
+     *                    'application/json', or without Content-Type. In the latter case it becomes the Content-Type
+     *                    of the response, unless the serializer tells otherwise.
+     * @param serializer  the serializer, its {@link Serializer#canProcess(Object)} is still checked
+     */
+    public synchronized void register(Class<?> type, String contentType, Serializer serializer) {
+        if (type == null || serializer == null) {
+            throw new IllegalArgumentException("type and serializer cannot be null");
+        }
+        registered.add(new Registration(type, contentType, contentType != null
+                ? new ContentTypeSerializer(serializer, contentType)
+                : serializer, false));
+        publish();
+    }
 
-        InputStreamSerializer inputStreamSerializer = new InputStreamSerializer();
-        inputStreamSerializer.setNext(defaultSerializer);
+    /**
+     * Drops the serializers registered with {@link #register(Class, String, Serializer)}.
+     */
+    public synchronized void clear() {
+        registered.clear();
+        publish();
+    }
 
-        BytesSerializer bytesSerializer = new BytesSerializer();
-        bytesSerializer.setNext(inputStreamSerializer);
+    /**
+     * Finds the serializer for an element.
+     *
+     * @param element     the element to serialize.
+     * @param contentType the Content-Type of the response, null if not set.
+     * @return the serializer.
+     */
+    public Serializer serializerFor(Object element, String contentType) {
+        if (element == null) {
+            return DEFAULT;
+        }
+        String mediaType = contentType != null ? mediaType(contentType) : null;
+        for (Registration registration : dispatch.get(element.getClass())) {
+            if (registration.accepts(mediaType) && registration.serializer.canProcess(element)) {
+                return registration.serializer;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Finds the serializer registered with {@link #register(Class, String, Serializer)} for an element, ignoring
+     * the built-in ones.
+     */
+    Serializer registeredFor(Object element, String mediaType) {
+        for (Registration registration : dispatch.get(element.getClass())) {
+            if (registration.builtIn) {
+                return null;
+            }
+            if (registration.accepts(mediaType) && registration.serializer.canProcess(element)) {
+                return registration.serializer;
+            }
+        }
+        return null;
+    }
 
-        this.root = bytesSerializer;
+    long flushIntervalNanos() {
+        return flushIntervalNanos;
     }
 
     /**
@@ -50,7 +146,149 @@ public final class SerializerChain {
      * @throws IOException in the case of IO error.
      */
     public void process(OutputStream outputStream, Object element) throws IOException {
-        this.root.processElement(outputStream, element);
+        serializerFor(element, null).process(outputStream, element);
+    }
+
+    /**
+     * Tells the size of the output, if known without serializing.
+     *
+     * @param element the element to serialize.
+     * @return the number of bytes the element serializes to, or -1 if unknown.
+     */
+    public long contentLength(Object element) {
+        return serializerFor(element, null).contentLength(element);
+    }
+
+    /**
+     * Tells the content type of the output, if the serializer can tell.
+     *
+     * @param element the element to serialize.
+     * @return the content type, or null if unknown.
+     */
+    public String contentType(Object element) {
+        return serializerFor(element, null).contentType(element);
+    }
+
+    private void publish() {
+        List<Registration> all = new ArrayList<>(registered);
+        all.addAll(builtIn);
+        dispatch = new Dispatch(all);
+    }
+
+    private static String mediaType(String contentType) {
+        int end = contentType.indexOf(';');
+        return (end < 0 ? contentType : contentType.substring(0, end)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<Registration> builtIn() {
+        BytesSerializer bytesSerializer = new BytesSerializer();
+        FileSerializer fileSerializer = new FileSerializer();
+        List<Registration> builtIn = new ArrayList<>(List.of(
+                new Registration(byte[].class, null, bytesSerializer, true),
+                new Registration(ByteBuffer.class, null, bytesSerializer, true),
+                new Registration(ByteBuffer[].class, null, bytesSerializer, true),
+                new Registration(List.class, null, bytesSerializer, true),
+                new Registration(Path.class, null, fileSerializer, true),
+                new Registration(FileChannel.class, null, fileSerializer, true),
+                new Registration(FileRegion.class, null, fileSerializer, true),
+                new Registration(InputStream.class, null, new InputStreamSerializer(), true),
+                new Registration(CharSequence.class, null, new CharSequenceSerializer(), true)));
+
+        // Sequences in the format asked by the Content-Type. Without one, Streams and Iterators are written as
+        // a JSON array, while Iterables keep their toString() as collections always did
+        for (SequenceSerializer.Format format : SequenceSerializer.Format.values()) {
+            SequenceSerializer sequenceSerializer = new SequenceSerializer(this, format);
+            for (Class<?> type : List.of(BaseStream.class, Iterator.class, Iterable.class)) {
+                builtIn.add(new Registration(type, format.mediaType, sequenceSerializer, true));
+            }
+        }
+        SequenceSerializer jsonArraySerializer = new SequenceSerializer(this, SequenceSerializer.Format.JSON_ARRAY);
+        builtIn.add(new Registration(BaseStream.class, null, jsonArraySerializer, true));
+        builtIn.add(new Registration(Iterator.class, null, jsonArraySerializer, true));
+
+        builtIn.add(new Registration(Flow.Publisher.class, null, new PublisherSerializer(this), true));
+        builtIn.add(new Registration(Object.class, null, DEFAULT, true));
+        return List.copyOf(builtIn);
+    }
+
+    private record Registration(Class<?> type, String contentType, Serializer serializer, boolean builtIn) {
+
+        private Registration(Class<?> type, String contentType, Serializer serializer, boolean builtIn) {
+            this.type = type;
+            this.contentType = contentType != null ? mediaType(contentType) : null;
+            this.serializer = serializer;
+            this.builtIn = builtIn;
+        }
+
+        // Registered serializers with a media type also apply to responses without Content-Type, built-in ones don't
+        boolean accepts(String mediaType) {
+            return contentType == null || (mediaType != null ? contentType.equals(mediaType) : !builtIn);
+        }
+    }
+
+    private static final class Dispatch extends ClassValue<Registration[]> {
+
+        private final List<Registration> registrations;
+
+        Dispatch(List<Registration> registrations) {
+            this.registrations = registrations;
+        }
+
+        @Override
+        protected Registration[] computeValue(Class<?> type) {
+            List<Registration> candidates = new ArrayList<>();
+            for (Registration registration : registrations) {
+                if (registration.type.isAssignableFrom(type)) {
+                    candidates.add(registration);
+                }
+            }
+            return candidates.toArray(new Registration[0]);
+        }
+    }
+
+    /**
+     * Reports the registered content type unless the serializer knows better.
+     */
+    private static final class ContentTypeSerializer extends Serializer {
+
+        private final Serializer serializer;
+        private final String contentType;
+
+        ContentTypeSerializer(Serializer serializer, String contentType) {
+            this.serializer = serializer;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public boolean canProcess(Object element) {
+            return serializer.canProcess(element);
+        }
+
+        @Override
+        public void process(OutputStream outputStream, Object element) throws IOException {
+            serializer.process(outputStream, element);
+        }
+
+        @Override
+        public long contentLength(Object element) {
+            return serializer.contentLength(element);
+        }
+
+        @Override
+        public boolean streams(Object element) {
+            return serializer.streams(element);
+        }
+
+        @Override
+        public void discard(Object element) throws IOException {
+            serializer.discard(element);
+        }
+
+        @Override
+        public String contentType(Object element) {
+            String type = serializer.contentType(element);
+            return type != null ? type : contentType;
+        }
     }
 
 }
@@ -16,6 +16,7 @@
  */
 package speck.staticfiles;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -111,6 +112,11 @@ public class MimeType {
         return getMimeType(filename);
     }
 
+    public static String fromPath(Path path) {
+        Path filename = path.getFileName();
+        return getMimeType(filename != null ? filename.toString() : "");
+    }
+
     protected static String getMimeType(String filename) {
         String fileExtension = filename.replaceAll("^.*\\.(.*)$", "$1");
         return mappings.getOrDefault(fileExtension, "application/octet-stream");
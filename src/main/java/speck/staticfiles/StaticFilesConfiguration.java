@@ -21,6 +21,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 import com.sun.net.httpserver.HttpExchange;
@@ -40,14 +43,18 @@ import speck.utils.IOUtils;
 public class StaticFilesConfiguration {
     private final System.Logger LOG = System.getLogger(StaticFilesConfiguration.class.getName());
 
-    private List<AbstractResourceHandler> staticResourceHandlers = null;
+    // Replaced, never changed, when configured, so request threads read it without a lock
+    private volatile List<AbstractResourceHandler> staticResourceHandlers = null;
 
-    private boolean staticResourcesSet = false;
-    private boolean externalStaticResourcesSet = false;
+    private volatile boolean staticResourcesSet = false;
+    private volatile boolean externalStaticResourcesSet = false;
+
+    // Configuring may read the file system, which would pin a virtual thread holding a monitor
+    private final Lock configurationLock = new ReentrantLock();
 
     public static StaticFilesConfiguration servletInstance = new StaticFilesConfiguration();
 
-    private Map<String, String> customHeaders = new HashMap<>();
+    private final Map<String, String> customHeaders = new ConcurrentHashMap<>();
 
     /**
      * Attempt consuming using either static resource handlers or jar resource handlers
@@ -77,6 +84,7 @@ public class StaticFilesConfiguration {
 
 
     private boolean consumeWithFileResourceHandlers(HttpExchange httpExchange) throws IOException {
+        List<AbstractResourceHandler> staticResourceHandlers = this.staticResourceHandlers;
         if (staticResourceHandlers != null) {
 
             for (AbstractResourceHandler staticResourceHandler : staticResourceHandlers) {
@@ -111,14 +119,14 @@ public class StaticFilesConfiguration {
      * Clears all static file configuration
      */
     public void clear() {
-
-        if (staticResourceHandlers != null) {
-            staticResourceHandlers.clear();
+        configurationLock.lock();
+        try {
             staticResourceHandlers = null;
+            staticResourcesSet = false;
+            externalStaticResourcesSet = false;
+        } finally {
+            configurationLock.unlock();
         }
-
-        staticResourcesSet = false;
-        externalStaticResourcesSet = false;
     }
     
     public boolean isStaticResourcesSet() {
@@ -134,18 +142,18 @@ public class StaticFilesConfiguration {
      *
      * @param folder the location
      */
-    public synchronized void configure(String folder) {
+    public void configure(String folder) {
         Objects.requireNonNull(folder, "'folder' must not be null");
 
-        if (!staticResourcesSet) {
-
-            if (staticResourceHandlers == null) {
-                staticResourceHandlers = new ArrayList<>();
+        configurationLock.lock();
+        try {
+            if (!staticResourcesSet) {
+                addStaticResourceHandler(new ClassPathResourceHandler(folder, "index.html"));
+                LOG.log(System.Logger.Level.INFO, "StaticResourceHandler configured with folder = " + folder);
+                staticResourcesSet = true;
             }
-
-            staticResourceHandlers.add(new ClassPathResourceHandler(folder, "index.html"));
-            LOG.log(System.Logger.Level.INFO, "StaticResourceHandler configured with folder = " + folder);
-            staticResourcesSet = true;
+        } finally {
+            configurationLock.unlock();
         }
     }
 
@@ -154,28 +162,40 @@ public class StaticFilesConfiguration {
      *
      * @param folder the location
      */
-    public synchronized void configureExternal(String folder) {
+    public void configureExternal(String folder) {
         Objects.requireNonNull(folder, "'folder' must not be null");
 
-        if (!externalStaticResourcesSet) {
-            try {
-                ExternalResource resource = new ExternalResource(folder);
-                if (!resource.getFile().isDirectory()) {
-                    LOG.log(System.Logger.Level.ERROR, "External Static resource location must be a folder");
-                    return;
-                }
+        configurationLock.lock();
+        try {
+            if (!externalStaticResourcesSet) {
+                try {
+                    ExternalResource resource = new ExternalResource(folder);
+                    if (!resource.getFile().isDirectory()) {
+                        LOG.log(System.Logger.Level.ERROR, "External Static resource location must be a folder");
+                        return;
+                    }
 
-                if (staticResourceHandlers == null) {
-                    staticResourceHandlers = new ArrayList<>();
+                    addStaticResourceHandler(new ExternalResourceHandler(folder, "index.html"));
+                    LOG.log(System.Logger.Level.INFO, "External StaticResourceHandler configured with folder = " + folder);
+                } catch (IOException e) {
+                    LOG.log(System.Logger.Level.ERROR, "Error when creating external StaticResourceHandler", e);
                 }
-                staticResourceHandlers.add(new ExternalResourceHandler(folder, "index.html"));
-                LOG.log(System.Logger.Level.INFO, "External StaticResourceHandler configured with folder = " + folder);
-            } catch (IOException e) {
-                LOG.log(System.Logger.Level.ERROR, "Error when creating external StaticResourceHandler", e);
+
+                externalStaticResourcesSet = true;
             }
+        } finally {
+            configurationLock.unlock();
+        }
+    }
 
-            externalStaticResourcesSet = true;
+    // Called holding the configuration lock
+    private void addStaticResourceHandler(AbstractResourceHandler handler) {
+        List<AbstractResourceHandler> handlers = new ArrayList<>();
+        if (staticResourceHandlers != null) {
+            handlers.addAll(staticResourceHandlers);
         }
+        handlers.add(handler);
+        staticResourceHandlers = List.copyOf(handlers);
     }
 
     public static StaticFilesConfiguration create() {
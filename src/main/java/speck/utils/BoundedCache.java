@@ -0,0 +1,67 @@
+package speck.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent map that never grows beyond a maximum size. Reads never block.
+ * When full, an arbitrary entry is dropped to make room, which is good enough for caches whose keys
+ * come from a small set (e.g. the distinct Accept headers sent by clients).
+ *
+ * @param <K> the key type
+ * @param <V> the value type, null values are not supported
+ */
+public final class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Constructor
+     *
+     * @param maxSize the maximum number of entries
+     */
+    public BoundedCache(int maxSize) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value or null
+     */
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * Caches a value, dropping another entry if the cache is full.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        if (map.size() >= maxSize && !map.containsKey(key)) {
+            Iterator<K> keys = map.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        map.put(key, value);
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Drops all entries
+     */
+    public void clear() {
+        map.clear();
+    }
+}
@@ -0,0 +1,234 @@
+package speck.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of the byte and char arrays used to copy, read and encode bodies, so that every request doesn't
+ * allocate its own few KB of buffers.
+ * <p>
+ * Buffers come in power of two sizes from {@link #MIN_SIZE} to {@link #MAX_SIZE}, a request for another size gets
+ * the next one up. Each size keeps at most a fixed number of buffers, so the footprint is bounded; buffers released
+ * to a full size are left to the garbage collector, and larger requests are simply allocated.
+ * <p>
+ * Buffers sit in shared slots taken and returned with compare-and-set, there are no locks and no thread locals,
+ * so the pool behaves the same with thousands of virtual threads as with a few platform ones.
+ * <p>
+ * A buffer must be released at most once, and not used anymore after that.
+ */
+public final class BufferPool {
+
+    /**
+     * The smallest pooled size
+     */
+    public static final int MIN_SIZE = 2 * 1024;
+
+    /**
+     * The largest pooled size
+     */
+    public static final int MAX_SIZE = 64 * 1024;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_SIZE);
+    private static final int SIZES = Integer.numberOfTrailingZeros(MAX_SIZE) - MIN_SHIFT + 1;
+
+    private static final BufferPool SHARED = new BufferPool(32);
+
+    private final Shelf<byte[]>[] bytes;
+    private final Shelf<char[]>[] chars;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @return the pool used by Speck
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param buffersPerSize the maximum number of buffers kept for each size and type
+     */
+    @SuppressWarnings("unchecked")
+    public BufferPool(int buffersPerSize) {
+        Assert.isTrue(buffersPerSize > 0, "buffersPerSize must be positive");
+        bytes = (Shelf<byte[]>[]) new Shelf<?>[SIZES];
+        chars = (Shelf<char[]>[]) new Shelf<?>[SIZES];
+        for (int i = 0; i < SIZES; i++) {
+            bytes[i] = new Shelf<>(buffersPerSize);
+            chars[i] = new Shelf<>(buffersPerSize);
+        }
+    }
+
+    /**
+     * Borrows a byte array.
+     *
+     * @param minSize the minimum length
+     * @return an array of at least this length, with any content
+     */
+    public byte[] acquire(int minSize) {
+        int size = sizeFor(minSize);
+        if (size < 0) {
+            return new byte[minSize];
+        }
+        acquired.increment();
+        byte[] buffer = bytes[size].take();
+        if (buffer != null) {
+            reused.increment();
+            return buffer;
+        }
+        return new byte[MIN_SIZE << size];
+    }
+
+    /**
+     * Borrows a char array.
+     *
+     * @param minSize the minimum length
+     * @return an array of at least this length, with any content
+     */
+    public char[] acquireChars(int minSize) {
+        int size = sizeFor(minSize);
+        if (size < 0) {
+            return new char[minSize];
+        }
+        acquired.increment();
+        char[] buffer = chars[size].take();
+        if (buffer != null) {
+            reused.increment();
+            return buffer;
+        }
+        return new char[MIN_SIZE << size];
+    }
+
+    /**
+     * Returns a byte array obtained from {@link #acquire(int)}. Null and arrays of a size the pool doesn't
+     * keep are ignored.
+     *
+     * @param buffer the array
+     */
+    public void release(byte[] buffer) {
+        int size = buffer != null ? sizeOf(buffer.length) : -1;
+        if (size >= 0) {
+            released.increment();
+            if (!bytes[size].put(buffer)) {
+                discarded.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns a char array obtained from {@link #acquireChars(int)}. Null and arrays of a size the pool doesn't
+     * keep are ignored.
+     *
+     * @param buffer the array
+     */
+    public void release(char[] buffer) {
+        int size = buffer != null ? sizeOf(buffer.length) : -1;
+        if (size >= 0) {
+            released.increment();
+            if (!chars[size].put(buffer)) {
+                discarded.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the usage statistics so far
+     */
+    public Stats stats() {
+        long pooledBytes = 0;
+        for (int i = 0; i < SIZES; i++) {
+            pooledBytes += (long) (MIN_SIZE << i) * (bytes[i].count() + 2 * chars[i].count());
+        }
+        long acquired = this.acquired.sum();
+        long released = this.released.sum();
+        return new Stats(acquired, reused.sum(), released, discarded.sum(), acquired - released, pooledBytes);
+    }
+
+    // Index of the smallest pooled size that fits, -1 if none
+    private static int sizeFor(int minSize) {
+        if (minSize <= MIN_SIZE) {
+            return 0;
+        }
+        if (minSize > MAX_SIZE) {
+            return -1;
+        }
+        return 32 - Integer.numberOfLeadingZeros(minSize - 1) - MIN_SHIFT;
+    }
+
+    // Index of the pooled size of exactly this length, -1 if none
+    private static int sizeOf(int length) {
+        if (length < MIN_SIZE || length > MAX_SIZE || Integer.bitCount(length) != 1) {
+            return -1;
+        }
+        return Integer.numberOfTrailingZeros(length) - MIN_SHIFT;
+    }
+
+    /**
+     * Usage statistics of a pool.
+     *
+     * @param acquired    buffers borrowed, not counting those too large to be pooled
+     * @param reused      borrowed buffers that came from the pool instead of being allocated
+     * @param released    buffers returned
+     * @param discarded   returned buffers dropped because their size was full
+     * @param outstanding buffers borrowed and not returned yet. If it keeps growing while the server is idle,
+     *                    some code path leaks buffers, which costs allocations but nothing else
+     * @param pooledBytes the memory held by the pool
+     */
+    public record Stats(long acquired, long reused, long released, long discarded, long outstanding,
+                        long pooledBytes) {
+    }
+
+    private static final class Shelf<T> {
+
+        private final AtomicReferenceArray<T> slots;
+
+        Shelf(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        T take() {
+            int length = slots.length();
+            int start = start(length);
+            for (int i = 0; i < length; i++) {
+                int index = (start + i) % length;
+                T buffer = slots.get(index);
+                if (buffer != null && slots.compareAndSet(index, buffer, null)) {
+                    return buffer;
+                }
+            }
+            return null;
+        }
+
+        boolean put(T buffer) {
+            int length = slots.length();
+            int start = start(length);
+            for (int i = 0; i < length; i++) {
+                int index = (start + i) % length;
+                if (slots.get(index) == null && slots.compareAndSet(index, null, buffer)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int count() {
+            int count = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        // Threads start looking at different slots, so they seldom race for the same one
+        private static int start(int length) {
+            return (int) (Thread.currentThread().threadId() % length);
+        }
+    }
+}
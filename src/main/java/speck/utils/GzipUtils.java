@@ -20,11 +20,9 @@ import com.sun.net.httpserver.HttpExchange;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.function.Predicate;
+import java.util.List;
 import java.util.zip.GZIPOutputStream;
 
-import static speck.utils.CollectionUtils.stream;
-
 /**
  * GZIP utility class.
  *
@@ -38,8 +36,6 @@ public class GzipUtils {
 
     private static final String GZIP = "gzip";
 
-    private static final StringMatch STRING_MATCH = new StringMatch();
-
     // Hide constructor
     private GzipUtils() {
 
@@ -60,12 +56,7 @@ public class GzipUtils {
                                                                         IOException {
         OutputStream responseStream = httpExchange.getResponseBody();
 
-        // GZIP Support handled here. First we must ensure that we want to use gzip, and that the client supports gzip
-        boolean acceptsGzip = stream(httpExchange.getRequestHeaders().get(ACCEPT_ENCODING)).anyMatch(STRING_MATCH);
-        boolean wantGzip = CollectionUtils.contains(httpExchange.getResponseHeaders().get(CONTENT_ENCODING), GZIP);
-
-        if (acceptsGzip && (!requireWantsHeader || wantGzip)) {
-                addContentEncodingHeaderIfMissing(httpExchange, wantGzip);
+        if (checkGzip(httpExchange, requireWantsHeader)) {
                 httpExchange.sendResponseHeaders(responseCode, 0);
                 responseStream = new GZIPOutputStream(responseStream, true);
 
@@ -76,24 +67,43 @@ public class GzipUtils {
         return responseStream;
     }
 
+    /**
+     * Checks if the HTTP request/response accepts and wants GZIP and in that case sets the Content-Encoding header,
+     * leaving it to the caller to send the headers and wrap the response output stream.
+     *
+     * @param httpExchange       the HTTP exchange.
+     * @param requireWantsHeader if wants header is required
+     * @return true if the response body has to be gzipped
+     */
+    public static boolean checkGzip(HttpExchange httpExchange, boolean requireWantsHeader) {
+        // GZIP Support handled here. First we must ensure that we want to use gzip, and that the client supports gzip
+        boolean acceptsGzip = acceptsGzip(httpExchange.getRequestHeaders().get(ACCEPT_ENCODING));
+        boolean wantGzip = CollectionUtils.contains(httpExchange.getResponseHeaders().get(CONTENT_ENCODING), GZIP);
+
+        if (acceptsGzip && (!requireWantsHeader || wantGzip)) {
+            addContentEncodingHeaderIfMissing(httpExchange, wantGzip);
+            return true;
+        }
+        return false;
+    }
+
     private static void addContentEncodingHeaderIfMissing(HttpExchange httpExchange, boolean wantsGzip) {
         if (!wantsGzip) {
             httpExchange.getResponseHeaders().add(CONTENT_ENCODING, GZIP);
         }
     }
 
-    /**
-     * Used instead of lambdas due to risk for java.lang.IncompatibleClassChangeError.
-     */
-    private static class StringMatch implements Predicate<String> {
-        @Override
-        public boolean test(String s) {
-            if (s == null) {
-                return false;
+    // A plain loop, this runs for every response
+    private static boolean acceptsGzip(List<String> acceptEncodings) {
+        if (acceptEncodings == null) {
+            return false;
+        }
+        for (String acceptEncoding : acceptEncodings) {
+            if (acceptEncoding != null && acceptEncoding.contains(GZIP)) {
+                return true;
             }
-
-            return s.contains(GZIP);
         }
+        return false;
     }
 
 }
@@ -25,6 +25,7 @@ import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Arrays;
 
 /**
  * General IO stream manipulation utilities.
@@ -48,7 +49,7 @@ import java.io.Writer;
  * All the methods in this class that read a stream are buffered internally.
  * This means that there is no cause to use a <code>BufferedInputStream</code>
  * or <code>BufferedReader</code>. The default buffer size of 4K has been shown
- * to be efficient in tests.
+ * to be efficient in tests. Buffers are borrowed from {@link BufferPool#shared()}.
  * <p>
  * Wherever possible, the methods in this class do <em>not</em> flush or close
  * the stream. This is to avoid making non-portable assumptions about the
@@ -128,12 +129,22 @@ public final class IOUtils {
      *             if an I/O error occurs
      */
     public static byte[] toByteArray(InputStream input) throws IOException {
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
-        byte[] buf = new byte[1024];
-        for (int n = input.read(buf); n != -1; n = input.read(buf)) {
-            os.write(buf, 0, n);
+        byte[] buf = BufferPool.shared().acquire(DEFAULT_BUFFER_SIZE);
+        try {
+            // Most bodies fit the buffer, they are copied once without going through a ByteArrayOutputStream
+            int count = input.readNBytes(buf, 0, buf.length);
+            if (count < buf.length) {
+                return Arrays.copyOf(buf, count);
+            }
+            ByteArrayOutputStream os = new ByteArrayOutputStream(2 * buf.length);
+            os.write(buf, 0, count);
+            for (int n = input.read(buf); n != -1; n = input.read(buf)) {
+                os.write(buf, 0, n);
+            }
+            return os.toByteArray();
+        } finally {
+            BufferPool.shared().release(buf);
         }
-        return os.toByteArray();
     }
 
     /**
@@ -180,14 +191,18 @@ public final class IOUtils {
     */
     public static long copyLarge(final InputStream input, final OutputStream output)
         throws IOException {
-        byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-        long count = 0;
-        int n = 0;
-        while (-1 != (n = input.read(buffer))) {
-            output.write(buffer, 0, n);
-            count += n;
+        byte[] buffer = BufferPool.shared().acquire(DEFAULT_BUFFER_SIZE);
+        try {
+            long count = 0;
+            int n = 0;
+            while (-1 != (n = input.read(buffer))) {
+                output.write(buffer, 0, n);
+                count += n;
+            }
+            return count;
+        } finally {
+            BufferPool.shared().release(buffer);
         }
-        return count;
     }
 
     /**
@@ -255,14 +270,18 @@ public final class IOUtils {
      * @since Commons IO 1.3
      */
     public static long copyLarge(Reader input, Writer output) throws IOException {
-        char[] buffer = new char[DEFAULT_BUFFER_SIZE];
-        long count = 0;
-        int n = 0;
-        while (-1 != (n = input.read(buffer))) {
-            output.write(buffer, 0, n);
-            count += n;
+        char[] buffer = BufferPool.shared().acquireChars(DEFAULT_BUFFER_SIZE);
+        try {
+            long count = 0;
+            int n = 0;
+            while (-1 != (n = input.read(buffer))) {
+                output.write(buffer, 0, n);
+                count += n;
+            }
+            return count;
+        } finally {
+            BufferPool.shared().release(buffer);
         }
-        return count;
     }
 
 }
@@ -1,9 +1,9 @@
 package speck.utils;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -18,9 +18,12 @@ public class MimeParse {
     public static final String NO_MIME_TYPE = "";
 
     /**
-     * Parse results container
+     * Parse results container. Obtained from {@link #parse(String)} so a supported type can be parsed once
+     * and matched against many headers.
      */
-    private static class ParseResults {
+    public static final class ParseResults {
+        String mimeType;
+
         String type;
 
         String subType;
@@ -47,6 +50,7 @@ public class MimeParse {
     private static ParseResults parseMimeType(String mimeType) {
         String[] parts = mimeType.split(";");
         ParseResults results = new ParseResults();
+        results.mimeType = mimeType;
         results.params = new HashMap<>();
 
         for (int i = 1; i < parts.length; ++i) {
@@ -132,13 +136,12 @@ public class MimeParse {
      * the best match, or (-1, 0) if no match was found. Just as for
      * quality_parsed(), 'parsed_ranges' must be a list of parsed media ranges.
      *
-     * @param mimeType
+     * @param target
      * @param parsedRanges
      */
-    private static FitnessAndQuality fitnessAndQualityParsed(String mimeType, Collection<ParseResults> parsedRanges) {
+    private static FitnessAndQuality fitnessAndQualityParsed(ParseResults target, Collection<ParseResults> parsedRanges) {
         int bestFitness = -1;
         float bestFitQ = 0;
-        ParseResults target = parseMediaRange(mimeType);
 
         for (ParseResults range : parsedRanges) {
             if ((target.type.equals(range.type) || range.type.equals("*") || target.type.equals("*"))
@@ -163,6 +166,16 @@ public class MimeParse {
         return new FitnessAndQuality(bestFitness, bestFitQ);
     }
 
+    /**
+     * Parses a supported mime type once, to be used with {@link #bestMatch(List, String)}
+     *
+     * @param mimeType the mime type
+     * @return the parsed mime type
+     */
+    public static ParseResults parse(String mimeType) {
+        return parseMediaRange(mimeType);
+    }
+
     /**
      * Finds best match
      *
@@ -171,15 +184,30 @@ public class MimeParse {
      * @return the best match
      */
     public static String bestMatch(Collection<String> supported, String header) {
-        List<ParseResults> parseResults = new LinkedList<>();
-        List<FitnessAndQuality> weightedMatches = new LinkedList<>();
+        List<ParseResults> parsedSupported = new ArrayList<>(supported.size());
+        for (String s : supported) {
+            parsedSupported.add(parse(s));
+        }
+        return bestMatch(parsedSupported, header);
+    }
+
+    /**
+     * Finds best match among supported types that were already parsed
+     *
+     * @param supported the supported types, see {@link #parse(String)}
+     * @param header    the header
+     * @return the best match
+     */
+    public static String bestMatch(List<ParseResults> supported, String header) {
+        List<ParseResults> parseResults = new ArrayList<>();
+        List<FitnessAndQuality> weightedMatches = new ArrayList<>(supported.size());
         for (String r : header.split(",")) {
             parseResults.add(parseMediaRange(r));
         }
 
-        for (String s : supported) {
+        for (ParseResults s : supported) {
             FitnessAndQuality fitnessAndQuality = fitnessAndQualityParsed(s, parseResults);
-            fitnessAndQuality.mimeType = s;
+            fitnessAndQuality.mimeType = s.mimeType;
             weightedMatches.add(fitnessAndQuality);
         }
         Collections.sort(weightedMatches);
@@ -27,7 +27,6 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class UrlDecode {
 
@@ -170,9 +169,12 @@ public class UrlDecode {
         if (StringUtils.isBlank(query)) {
             return Collections.emptyMap();
         }
-        return Arrays.stream(query.split("&"))
-            .map(UrlDecode::splitQueryParameter)
-            .collect(Collectors.groupingBy(AbstractMap.SimpleImmutableEntry::getKey, LinkedHashMap::new, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+        UrlEncodedParams params = UrlEncodedParams.parse(query);
+        Map<String, List<String>> split = new LinkedHashMap<>();
+        for (String name : params.names()) {
+            split.put(name, Arrays.asList(params.values(name)));
+        }
+        return split;
     }
 
     public static AbstractMap.SimpleImmutableEntry<String, String> splitQueryParameter(String it) {
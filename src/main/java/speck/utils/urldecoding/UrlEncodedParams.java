@@ -0,0 +1,309 @@
+package speck.utils.urldecoding;
+
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parameters in application/x-www-form-urlencoded form, as in a query string or a posted form:
+ * {@code name=value&name=other&flag}.
+ * <p>
+ * The text, or the bytes of a form body, are split in a single pass. Names are decoded then, to group the values
+ * by name in order of first appearance, but values are kept as ranges of the encoded input and only decoded the
+ * first time they are read. A name without '=' or with nothing after it has a null value. Malformed escapes fail
+ * with IllegalArgumentException when the name or value containing them is decoded.
+ * <p>
+ * Instances are meant to be used by a single request and are not thread safe.
+ */
+public final class UrlEncodedParams {
+
+    private static final UrlEncodedParams EMPTY = new UrlEncodedParams(Collections.emptyMap());
+
+    private final Map<String, Values> byName;
+
+    private UrlEncodedParams(Map<String, Values> byName) {
+        this.byName = byName;
+    }
+
+    /**
+     * Splits encoded parameters
+     *
+     * @param encoded the encoded text, e.g. the raw query string. Can be null
+     * @return the parameters
+     */
+    public static UrlEncodedParams parse(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return EMPTY;
+        }
+        return split(new Source() {
+            @Override
+            public int length() {
+                return encoded.length();
+            }
+
+            @Override
+            public int at(int index) {
+                return encoded.charAt(index);
+            }
+
+            @Override
+            public String decode(int start, int end) {
+                // URLDecoder hands back its argument when there is nothing to decode
+                return URLDecoder.decode(encoded.substring(start, end), StandardCharsets.UTF_8);
+            }
+        });
+    }
+
+    /**
+     * Splits encoded parameters without turning them into a String first, e.g. a posted form body. The bytes
+     * must not change while the parameters are in use.
+     *
+     * @param encoded the encoded bytes. Can be null
+     * @param charset the charset of the bytes that escapes stand for, e.g. UTF-8
+     * @return the parameters
+     */
+    public static UrlEncodedParams parse(byte[] encoded, Charset charset) {
+        if (encoded == null || encoded.length == 0) {
+            return EMPTY;
+        }
+        return split(new Source() {
+            @Override
+            public int length() {
+                return encoded.length;
+            }
+
+            @Override
+            public int at(int index) {
+                return encoded[index];
+            }
+
+            @Override
+            public String decode(int start, int end) {
+                return UrlEncodedParams.decode(encoded, start, end, charset);
+            }
+        });
+    }
+
+    /**
+     * Joins two sets of parameters the way servlet containers join query and form parameters: names of both, the
+     * values of the first before those of the second.
+     *
+     * @param first  the first parameters, e.g. from the query string
+     * @param second the second parameters, e.g. from the form body
+     * @return the joined parameters
+     */
+    public static UrlEncodedParams merge(UrlEncodedParams first, UrlEncodedParams second) {
+        if (second.isEmpty()) {
+            return first;
+        } else if (first.isEmpty()) {
+            return second;
+        }
+        Map<String, Values> byName = new LinkedHashMap<>(first.byName);
+        for (Map.Entry<String, Values> entry : second.byName.entrySet()) {
+            byName.merge(entry.getKey(), entry.getValue(), JoinedValues::new);
+        }
+        return new UrlEncodedParams(byName);
+    }
+
+    private static UrlEncodedParams split(Source source) {
+        Map<String, Values> byName = new LinkedHashMap<>();
+        int length = source.length();
+        int start = 0;
+        int equals = -1;
+        for (int i = 0; i <= length; i++) {
+            int c = i < length ? source.at(i) : '&';
+            if (c == '=' && equals < 0 && i > start) {
+                equals = i;
+            } else if (c == '&') {
+                if (i > start) {
+                    String name = source.decode(start, equals < 0 ? i : equals);
+                    Values values = byName.get(name);
+                    if (values == null) {
+                        values = new Values(source);
+                        byName.put(name, values);
+                    }
+                    if (equals < 0 || equals + 1 == i) {
+                        values.add(-1, -1);
+                    } else {
+                        values.add(equals + 1, i);
+                    }
+                }
+                start = i + 1;
+                equals = -1;
+            }
+        }
+        return new UrlEncodedParams(byName);
+    }
+
+    /**
+     * @param name the parameter name
+     * @return the first value of the parameter, or null if it isn't there or has no value
+     */
+    public String value(String name) {
+        Values values = byName.get(name);
+        return values == null ? null : values.get(0);
+    }
+
+    /**
+     * @param name the parameter name
+     * @return all the values of the parameter, in order, or null if it isn't there
+     */
+    public String[] values(String name) {
+        Values values = byName.get(name);
+        if (values == null) {
+            return null; // NOSONAR
+        }
+        String[] all = new String[values.count()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = values.get(i);
+        }
+        return all;
+    }
+
+    /**
+     * @return the parameter names, in order of first appearance
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(byName.keySet());
+    }
+
+    /**
+     * @return true if there are no parameters
+     */
+    public boolean isEmpty() {
+        return byName.isEmpty();
+    }
+
+    /**
+     * @return all the parameters, with every value decoded, in order of first appearance
+     */
+    public Map<String, String[]> toMap() {
+        Map<String, String[]> map = new LinkedHashMap<>();
+        for (String name : byName.keySet()) {
+            map.put(name, values(name));
+        }
+        return map;
+    }
+
+    // Percent decoding of bytes, as URLDecoder does for text
+    private static String decode(byte[] encoded, int start, int end, Charset charset) {
+        int i = start;
+        while (i < end && encoded[i] != '%' && encoded[i] != '+') {
+            i++;
+        }
+        if (i == end) {
+            return new String(encoded, start, end - start, charset);
+        }
+        byte[] decoded = new byte[end - start];
+        int length = i - start;
+        System.arraycopy(encoded, start, decoded, 0, length);
+        for (; i < end; i++) {
+            byte b = encoded[i];
+            if (b == '+') {
+                decoded[length++] = ' ';
+            } else if (b == '%') {
+                if (i + 2 >= end) {
+                    throw new IllegalArgumentException("Incomplete trailing escape (%) pattern");
+                }
+                int high = Character.digit(encoded[i + 1], 16);
+                int low = Character.digit(encoded[i + 2], 16);
+                if (high < 0 || low < 0) {
+                    throw new IllegalArgumentException("Illegal hex characters in escape (%) pattern");
+                }
+                decoded[length++] = (byte) (high << 4 | low);
+                i += 2;
+            } else {
+                decoded[length++] = b;
+            }
+        }
+        return new String(decoded, 0, length, charset);
+    }
+
+    /**
+     * The encoded input, text or bytes.
+     */
+    private interface Source {
+
+        int length();
+
+        int at(int index);
+
+        String decode(int start, int end);
+    }
+
+    /**
+     * The values of one name, as ranges of the encoded input until read.
+     */
+    private static class Values {
+
+        private final Source source;
+        // start and end of each value, -1 for no value
+        private int[] ranges = new int[2];
+        private String[] decoded;
+        private int count;
+
+        Values(Source source) {
+            this.source = source;
+        }
+
+        void add(int start, int end) {
+            if (count * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[count * 2] = start;
+            ranges[count * 2 + 1] = end;
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        String get(int index) {
+            int start = ranges[index * 2];
+            if (start < 0) {
+                return null;
+            }
+            if (decoded == null) {
+                decoded = new String[count];
+            }
+            String value = decoded[index];
+            if (value == null) {
+                value = source.decode(start, ranges[index * 2 + 1]);
+                decoded[index] = value;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * The values of a name in two sets of parameters.
+     */
+    private static final class JoinedValues extends Values {
+
+        private final Values first;
+        private final Values second;
+
+        JoinedValues(Values first, Values second) {
+            super(null);
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        int count() {
+            return first.count() + second.count();
+        }
+
+        @Override
+        String get(int index) {
+            int inFirst = first.count();
+            return index < inFirst ? first.get(index) : second.get(index - inFirst);
+        }
+    }
+}
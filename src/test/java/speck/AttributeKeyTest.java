@@ -0,0 +1,83 @@
+package speck;
+
+import java.util.List;
+import java.util.Set;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AttributeKeyTest {
+
+    private static final AttributeKey<String> USER = AttributeKey.of("attributeKeyTest.user", String.class);
+    private static final AttributeKey<Integer> COUNTER = AttributeKey.of("attributeKeyTest.counter", Integer.class);
+
+    private final Request request = new Request((HttpExchange) null);
+
+    @Test
+    public void testOf_SameNameSameKey() {
+        AttributeKey<String> again = AttributeKey.of("attributeKeyTest.user", String.class);
+
+        assertSame(USER, again, "one key per name");
+        assertEquals("attributeKeyTest.user", again.name(), "name");
+        assertEquals(String.class, again.type(), "type");
+    }
+
+    @Test
+    public void testOf_OtherType() {
+        assertThrows(IllegalArgumentException.class, () -> AttributeKey.of("attributeKeyTest.user", Integer.class),
+                     "a name has a single type");
+        assertThrows(IllegalArgumentException.class, () -> AttributeKey.of("attributeKeyTest.primitive", int.class),
+                     "values are objects");
+    }
+
+    @Test
+    public void testAttribute_ByKey() {
+        assertNull(request.attribute(USER), "nothing set yet");
+
+        request.attribute(USER, "bob");
+        request.attribute(COUNTER, 1);
+        request.attribute(COUNTER, request.attribute(COUNTER) + 1);
+
+        assertEquals("bob", request.attribute(USER), "set by key");
+        assertEquals(Integer.valueOf(2), request.attribute(COUNTER), "replaced by key");
+        assertEquals("bob", request.attribute("attributeKeyTest.user"), "keys are visible by name");
+
+        request.attribute(USER, null);
+        assertNull(request.attribute(USER), "removed");
+        assertEquals(Set.of("attributeKeyTest.counter"), request.attributes(), "names of the attributes left");
+    }
+
+    @Test
+    public void testAttribute_ByName() {
+        request.attribute("attributeKeyTest.user", "alice");
+        request.attribute("attributeKeyTest.unkeyed", List.of(1, 2));
+
+        assertEquals("alice", request.attribute(USER), "names with a key go to its slot");
+        List<Integer> unkeyed = request.attribute("attributeKeyTest.unkeyed");
+        assertEquals(List.of(1, 2), unkeyed, "names without a key");
+        assertEquals(List.of("attributeKeyTest.user", "attributeKeyTest.unkeyed"), List.copyOf(request.attributes()), "all names");
+
+        assertThrows(ClassCastException.class, () -> request.attribute("attributeKeyTest.counter", "three"),
+                     "the value must be of the type of the key");
+
+        request.attribute("attributeKeyTest.unkeyed", null);
+        assertNull(request.attribute("attributeKeyTest.unkeyed"), "removed");
+    }
+
+    @Test
+    public void testAttribute_KeyCreatedAfterTheRequest() {
+        request.attribute(USER, "carol");
+        AttributeKey<Long> late = AttributeKey.of("attributeKeyTest.late", Long.class);
+
+        assertNull(request.attribute(late), "nothing set yet");
+        request.attribute(late, 5L);
+
+        assertEquals(Long.valueOf(5), request.attribute(late), "slot added to the request");
+        assertEquals("carol", request.attribute(USER), "earlier slots kept");
+    }
+}
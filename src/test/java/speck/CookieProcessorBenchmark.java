@@ -0,0 +1,63 @@
+package speck;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import speck.util.Benchmark;
+
+/**
+ * Generates the Set-Cookie headers of responses setting five cookies, each response on its own virtual thread, with
+ * {@link CookieProcessor} and with the former ThreadLocal SimpleDateFormat, which virtual threads create anew for
+ * every response.
+ */
+public class CookieProcessorBenchmark {
+
+    private static final int RESPONSES = 200_000;
+
+    private static final ThreadLocal<DateFormat> FORMER_DATE_FORMAT = ThreadLocal.withInitial(() -> {
+        DateFormat df = new SimpleDateFormat("EEE, dd-MMM-yyyy HH:mm:ss z", Locale.US);
+        df.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return df;
+    });
+
+    public static void main(String[] args) throws Exception {
+        CookieProcessor processor = new CookieProcessor();
+        List<Cookie> cookies = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Cookie cookie = new Cookie("cookie" + i, "value" + i);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge(i % 2 == 0 ? 3600 : 86400 * 30);
+            cookies.add(cookie);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            // The cost of the virtual thread and its result, to subtract from the others
+            Benchmark.measureOnVirtualThreads("no cookies", RESPONSES, () -> 0);
+            Benchmark.measureOnVirtualThreads("CookieProcessor", RESPONSES, () -> {
+                int length = 0;
+                for (Cookie cookie : cookies) {
+                    length += processor.generateHeader(cookie).length();
+                }
+                return length;
+            });
+            Benchmark.measureOnVirtualThreads("ThreadLocal DateFormat", RESPONSES, () -> {
+                int length = 0;
+                for (Cookie cookie : cookies) {
+                    StringBuffer header = new StringBuffer();
+                    header.append(cookie.getName()).append('=').append(cookie.getValue());
+                    header.append("; Max-Age=").append(cookie.getMaxAge()).append("; Expires=");
+                    header.append(FORMER_DATE_FORMAT.get().format(new Date(System.currentTimeMillis() + cookie.getMaxAge() * 1000L)));
+                    header.append("; Path=").append(cookie.getPath()).append("; HttpOnly");
+                    length += header.toString().length();
+                }
+                return length;
+            });
+        }
+    }
+}
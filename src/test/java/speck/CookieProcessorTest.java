@@ -0,0 +1,70 @@
+package speck;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CookieProcessorTest {
+
+    private final CookieProcessor processor = new CookieProcessor();
+
+    @Test
+    public void testGenerateHeader_Attributes() {
+        Cookie cookie = new Cookie("session", "abc");
+        cookie.setPath("/app");
+        cookie.setSecure(true);
+        cookie.setHttpOnly(true);
+
+        assertEquals("session=abc; Path=/app; Secure; HttpOnly", processor.generateHeader(cookie));
+    }
+
+    @Test
+    public void testGenerateHeader_Expires() {
+        Cookie cookie = new Cookie("id", "1");
+        cookie.setMaxAge(3600);
+
+        long before = System.currentTimeMillis() / 1000;
+        String header = processor.generateHeader(cookie);
+        long after = System.currentTimeMillis() / 1000;
+
+        String expires = header.substring(header.indexOf("; Expires=") + "; Expires=".length());
+        boolean inRange = false;
+        for (long second = before; second <= after; second++) {
+            inRange |= expires.equals(CookieProcessor.COOKIE_DATE_FORMAT.format(Instant.ofEpochSecond(second + 3600)));
+        }
+        assertTrue(header.startsWith("id=1; Max-Age=3600; Expires="), header);
+        assertTrue(inRange, "expires after Max-Age seconds: " + expires);
+        assertTrue(expires.matches("[A-Z][a-z]{2}, \\d{2}-[A-Z][a-z]{2}-\\d{4} \\d{2}:\\d{2}:\\d{2} GMT"), "Netscape format: " + expires);
+    }
+
+    @Test
+    public void testGenerateHeader_ExpiresCachedForTheSecond() {
+        Cookie cookie = new Cookie("id", "1");
+        cookie.setMaxAge(60);
+        Cookie other = new Cookie("other", "2");
+        other.setMaxAge(60);
+
+        String first;
+        String second;
+        long now;
+        do {
+            now = System.currentTimeMillis() / 1000;
+            first = processor.generateHeader(cookie);
+            second = processor.generateHeader(other);
+        } while (now != System.currentTimeMillis() / 1000);
+
+        String expires = first.substring(first.indexOf("Expires="));
+        assertEquals(expires, second.substring(second.indexOf("Expires=")), "same second, same Max-Age, same Expires");
+    }
+
+    @Test
+    public void testGenerateHeader_ExpireNow() {
+        Cookie cookie = new Cookie("id", "");
+        cookie.setMaxAge(0);
+
+        assertEquals("id=; Max-Age=0; Expires=Thu, 01-Jan-1970 00:00:10 GMT", processor.generateHeader(cookie));
+    }
+}
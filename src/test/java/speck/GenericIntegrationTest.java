@@ -20,6 +20,7 @@ import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static speck.Speck.after;
@@ -86,6 +87,13 @@ public class GenericIntegrationTest {
         get("/bytebufferhi", (q, a) -> ByteBuffer.wrap("Hello World!".getBytes()));
         get("/inputstreamhi", (q, a) -> new ByteArrayInputStream("Hello World!".getBytes(StandardCharsets.UTF_8)));
         get("/param/:param", (q, a) -> "echo: " + q.params(":param"));
+        get("/large", (q, a) -> "x".repeat(20_000));
+        get("/streamed", (q, a) -> {
+            a.writer().print("Hello ");
+            a.writer().flush();
+            a.outputStream().write("World!".getBytes(StandardCharsets.UTF_8));
+            return "not sent";
+        });
 
         path("/firstPath", () -> {
             before("/*", (q, a) -> a.header("before-filter-ran", "true"));
@@ -285,6 +293,31 @@ public class GenericIntegrationTest {
         assertEquals("", response.body);
     }
 
+    @Test
+    public void testGetHi_SentWithContentLength() throws Exception {
+        for (String path : List.of("/hi", "/binaryhi", "/bytebufferhi", "/inputstreamhi")) {
+            UrlResponse response = testUtil.get(path);
+            assertEquals("Hello World!", response.body, path);
+            assertEquals("12", response.headers.firstValue("Content-Length").orElse(null), path);
+            assertTrue(response.headers.firstValue("Transfer-Encoding").isEmpty(), path);
+        }
+    }
+
+    @Test
+    public void testGetLarge_SentChunked() throws Exception {
+        UrlResponse response = testUtil.get("/large");
+        assertEquals(20_000, response.body.length());
+        assertEquals("chunked", response.headers.firstValue("Transfer-Encoding").orElse(null));
+    }
+
+    @Test
+    public void testGetStreamed_WrittenByRoute() throws Exception {
+        UrlResponse response = testUtil.get("/streamed");
+        assertEquals(200, response.status);
+        assertEquals("Hello World!", response.body, "The value returned by the route should be ignored");
+        assertEquals("chunked", response.headers.firstValue("Transfer-Encoding").orElse(null));
+    }
+
     @Test
     public void testGetHiAfterFilter() throws Exception {
         UrlResponse response = testUtil.doMethod("GET", "/hi", null);
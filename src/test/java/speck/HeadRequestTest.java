@@ -0,0 +1,136 @@
+package speck;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import speck.serialization.Serializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Responses to HEAD requests send headers only, and the body the route returned is released instead.
+ */
+public class HeadRequestTest {
+
+    private static final CountDownLatch inputStreamClosed = new CountDownLatch(1);
+    private static final CountDownLatch streamClosed = new CountDownLatch(1);
+    private static final CountDownLatch publisherCancelled = new CountDownLatch(1);
+    private static final CountDownLatch reportDiscarded = new CountDownLatch(1);
+    private static final AtomicReference<FileChannel> channel = new AtomicReference<>();
+
+    private static Service service;
+    private static Path file;
+
+    @BeforeAll
+    public static void setUpClass() throws Exception {
+        file = Files.createTempFile("head", ".txt");
+        Files.writeString(file, "file content");
+
+        service = Service.ignite().port(0);
+        service.head("/input", (request, response) -> new ByteArrayInputStream("input".getBytes()) {
+            @Override
+            public void close() {
+                inputStreamClosed.countDown();
+            }
+        });
+        service.head("/rows", (request, response) -> Stream.of(1, 2, 3).onClose(streamClosed::countDown));
+        service.head("/published", (request, response) -> (Flow.Publisher<String>) subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                subscriber.onNext("item");
+            }
+
+            @Override
+            public void cancel() {
+                publisherCancelled.countDown();
+            }
+        }));
+        service.head("/channel", (request, response) -> {
+            channel.set(FileChannel.open(file));
+            return channel.get();
+        });
+        service.serializer(Report.class, "text/csv", new Serializer() {
+            @Override
+            public boolean canProcess(Object element) {
+                return true;
+            }
+
+            @Override
+            public void process(OutputStream outputStream, Object element) throws IOException {
+                outputStream.write(((Report) element).name().getBytes());
+            }
+
+            @Override
+            public void discard(Object element) {
+                reportDiscarded.countDown();
+            }
+        });
+        service.head("/report", (request, response) -> new Report("monthly"));
+        service.awaitInitialization();
+    }
+
+    @AfterAll
+    public static void tearDown() throws Exception {
+        service.stop();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testHead_ClosesInputStream() throws Exception {
+        assertEquals(200, head("/input"), "answered by the HEAD route");
+        assertTrue(inputStreamClosed.await(5, TimeUnit.SECONDS), "input stream closed");
+    }
+
+    @Test
+    public void testHead_ClosesStream() throws Exception {
+        assertEquals(200, head("/rows"), "answered by the HEAD route");
+        assertTrue(streamClosed.await(5, TimeUnit.SECONDS), "stream closed");
+    }
+
+    @Test
+    public void testHead_CancelsPublisher() throws Exception {
+        assertEquals(200, head("/published"), "answered by the HEAD route");
+        assertTrue(publisherCancelled.await(5, TimeUnit.SECONDS), "subscription cancelled");
+    }
+
+    @Test
+    public void testHead_ClosesFileChannel() throws Exception {
+        assertEquals(200, head("/channel"), "answered by the HEAD route");
+        assertFalse(channel.get().isOpen(), "file channel closed");
+    }
+
+    @Test
+    public void testHead_DiscardsThroughSerializerRegisteredForMediaType() throws Exception {
+        assertEquals(200, head("/report"), "answered by the HEAD route");
+        assertTrue(reportDiscarded.await(5, TimeUnit.SECONDS), "discarded by the registered serializer");
+    }
+
+    private static int head(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(new URI("http://localhost:" + service.port() + path))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode();
+    }
+
+    private record Report(String name) {
+    }
+}
@@ -2,6 +2,7 @@ package speck;
 
 
 import org.junit.jupiter.api.Test;
+import speck.utils.urldecoding.UrlEncodedParams;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -84,6 +85,22 @@ public class QueryParamsMapTest {
         assertEquals("", parsed[1]);
     }
 
+    @Test
+    public void parseKeyShouldSkipBracketsAroundKey() {
+        assertArrayEquals(new String[]{"user]", "[name]"}, queryMap.parseKey("user][name]"));
+        assertNull(queryMap.parseKey("[]"));
+        assertNull(queryMap.parseKey(""));
+    }
+
+    @Test
+    public void constructorWithQueryString() {
+        QueryParamsMap queryMap = new QueryParamsMap(UrlEncodedParams.parse("user%5Bname%5D=fede&user[age]=10&tag=a&tag=b").toMap());
+
+        assertEquals("fede", queryMap.value("user", "name"));
+        assertEquals(Integer.valueOf(10), queryMap.get("user", "age").integerValue());
+        assertArrayEquals(new String[]{"a", "b"}, queryMap.get("tag").values());
+    }
+
     @Test
     public void itShouldbeNullSafe() {
         QueryParamsMap queryParamsMap = new QueryParamsMap();
@@ -0,0 +1,56 @@
+package speck;
+
+import org.junit.jupiter.api.Test;
+
+import speck.route.HttpMethod;
+import speck.route.RoutePattern;
+import speck.routematch.RouteMatch;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RequestParamsTest {
+
+    @Test
+    public void testParams_DecodedOnAccess() {
+        Request request = new Request(match("/books/:id/*", "/books/a%20b/x%20y/z"), null);
+
+        assertEquals("a b", request.params(":id"));
+        assertEquals("a b", request.params("ID"), "Param names are case insensitive");
+        assertEquals(Map.of(":id", "a b"), request.params());
+        assertArrayEquals(new String[]{"x y/z"}, request.splat());
+        assertNull(request.params("name"));
+    }
+
+    @Test
+    public void testParams_ReusedUntilMatchChanges() {
+        Request request = new Request(match("/books/:id", "/books/42"), null);
+        Map<String, String> params = request.params();
+        assertSame(params, request.params(), "Params should be built once");
+
+        Access.changeMatch(request, match("/books/:name", "/books/43"));
+
+        assertEquals(Map.of(":name", "43"), request.params());
+        assertNull(request.params(":id"));
+    }
+
+    @Test
+    public void testSplat_ReturnsCopy() {
+        Request request = new Request(match("/files/*", "/files/a/b"), null);
+
+        request.splat()[0] = "changed";
+
+        assertArrayEquals(new String[]{"a/b"}, request.splat(), "Callers must not see each other's changes");
+    }
+
+    private static RouteMatch match(String path, String requestUri) {
+        RoutePattern pattern = RoutePattern.compile(path);
+        int[] captures = pattern.newCaptures();
+        pattern.capture(requestUri, captures);
+        return new RouteMatch(null, pattern, requestUri, captures, "*/*", HttpMethod.get);
+    }
+}
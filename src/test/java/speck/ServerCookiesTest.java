@@ -0,0 +1,58 @@
+package speck;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ServerCookiesTest {
+
+    @Test
+    public void testParse_SeveralCookies() {
+        ServerCookies cookies = ServerCookies.parse("_ga=GA1.2.3.4; session=abc123; theme=dark");
+
+        assertEquals(3, cookies.size(), "every cookie of the header");
+        assertEquals("GA1.2.3.4", cookies.value("_ga"));
+        assertEquals("abc123", cookies.value("session"));
+        assertEquals("dark", cookies.value("theme"));
+        assertNull(cookies.value("sess"), "names are compared whole");
+        assertNull(cookies.value("missing"));
+    }
+
+    @Test
+    public void testParse_Lenient() {
+        ServerCookies cookies = ServerCookies.parse(" a = 1 ;;b=\"quoted value\";flag; c=; =orphan;d=x=y\t");
+
+        assertEquals("1", cookies.value("a"), "whitespace dropped");
+        assertEquals("quoted value", cookies.value("b"), "quotes dropped");
+        assertNull(cookies.value("flag"), "part without '=' skipped");
+        assertEquals("", cookies.value("c"), "empty value");
+        assertEquals("x=y", cookies.value("d"), "'=' in values");
+        assertEquals(4, cookies.size(), "cookie without name skipped");
+    }
+
+    @Test
+    public void testParse_FirstOfRepeatedNames() {
+        ServerCookies cookies = ServerCookies.parse("id=specific; id=general");
+
+        assertEquals("specific", cookies.value("id"), "first one counts");
+        assertEquals(Map.of("id", "specific"), cookies.toMap(), "also in the map");
+    }
+
+    @Test
+    public void testParse_Empty() {
+        assertSame(ServerCookies.NONE, ServerCookies.parse(null));
+        assertSame(ServerCookies.NONE, ServerCookies.parse(" ; "));
+        assertEquals(Map.of(), ServerCookies.NONE.toMap());
+    }
+
+    @Test
+    public void testValue_CutOnce() {
+        ServerCookies cookies = ServerCookies.parse("a=1; b=2");
+
+        assertSame(cookies.value("b"), cookies.value("b"), "value kept once read");
+    }
+}
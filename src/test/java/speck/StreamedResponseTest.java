@@ -0,0 +1,81 @@
+package speck;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes that write the body through {@link Response#outputStream()} send what they wrote, and whatever they
+ * returned as well is released instead.
+ */
+public class StreamedResponseTest {
+
+    private static final CountDownLatch inputStreamClosed = new CountDownLatch(1);
+    private static final CountDownLatch streamClosed = new CountDownLatch(1);
+
+    private static Service service;
+
+    @BeforeAll
+    public static void setUpClass() {
+        service = Service.ignite().port(0);
+        service.get("/input", (request, response) -> {
+            response.outputStream().write("written".getBytes(StandardCharsets.UTF_8));
+            return new ByteArrayInputStream("returned".getBytes(StandardCharsets.UTF_8)) {
+                @Override
+                public void close() {
+                    inputStreamClosed.countDown();
+                }
+            };
+        });
+        service.get("/rows", (request, response) -> {
+            response.writer().print("written");
+            return Stream.of(1, 2, 3).onClose(streamClosed::countDown);
+        });
+        service.get("/empty-write", (request, response) -> {
+            response.outputStream().write(new byte[0]);
+            response.outputStream().write("written".getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+        service.awaitInitialization();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    public void testStreamed_ClosesReturnedInputStream() throws Exception {
+        assertEquals("written", get("/input"), "only what the route wrote is sent");
+        assertTrue(inputStreamClosed.await(5, TimeUnit.SECONDS), "input stream closed");
+    }
+
+    @Test
+    public void testStreamed_ClosesReturnedStream() throws Exception {
+        assertEquals("written", get("/rows"), "only what the route wrote is sent");
+        assertTrue(streamClosed.await(5, TimeUnit.SECONDS), "stream closed");
+    }
+
+    @Test
+    public void testStreamed_EmptyWriteIsIgnored() throws Exception {
+        assertEquals("written", get("/empty-write"), "what follows an empty write is sent");
+    }
+
+    private static String get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(new URI("http://localhost:" + service.port() + path)).build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
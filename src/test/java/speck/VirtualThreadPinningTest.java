@@ -0,0 +1,160 @@
+package speck;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Requests are handled on virtual threads, so the request path must neither block holding a monitor, which pins
+ * the virtual thread to its carrier, nor keep per-thread caches, which virtual threads build anew for every request.
+ */
+public class VirtualThreadPinningTest {
+
+    private static final int ROUNDS = 100;
+    private static final Pattern THREAD_LOCAL = Pattern.compile("java/lang/(Inheritable)?ThreadLocal(?![A-Za-z])");
+
+    private static Service service;
+
+    @BeforeAll
+    public static void setUpClass() {
+        service = Service.ignite().port(0);
+        service.staticFileLocation("/public");
+
+        service.get("/hello", (request, response) -> {
+            response.cookie("visited", request.cookie("visited") != null ? "again" : "once", 3600);
+            return "hello " + request.queryParams("name");
+        });
+        service.post("/form", (request, response) -> request.queryParams("name") + " " + request.queryMap("user").value("id"));
+        service.get("/fails", (request, response) -> {
+            throw new IllegalStateException("mapped");
+        });
+        service.exception(RuntimeException.class, (exception, request, response) -> response.body(exception.getMessage()));
+        service.get("/large", (request, response) -> "x".repeat(512 * 1024));
+        service.get("/rows", (request, response) -> Stream.iterate(0, i -> i < 1000, i -> i + 1));
+        service.get("/published", (request, response) -> (Flow.Publisher<String>) subscriber -> {
+            SubmissionPublisher<String> publisher = new SubmissionPublisher<>();
+            publisher.subscribe(subscriber);
+            Thread.startVirtualThread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    publisher.submit("item" + i);
+                }
+                publisher.close();
+            });
+        });
+
+        service.awaitInitialization();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    public void testRequestPath_DoesNotPinVirtualThreads() throws Exception {
+        Path recorded = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            drive();
+            recording.stop();
+            recording.dump(recorded);
+
+            List<RecordedEvent> pinned = RecordingFile.readAllEvents(recorded);
+            assertTrue(pinned.isEmpty(), "virtual threads pinned " + pinned.size() + " times, first at:\n" + (pinned.isEmpty() ? "" : stack(pinned.get(0))));
+        } finally {
+            Files.deleteIfExists(recorded);
+        }
+    }
+
+    @Test
+    public void testSpeckClasses_UseNoThreadLocal() throws Exception {
+        Path classes = Path.of(Service.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        List<String> offenders;
+        if (Files.isDirectory(classes)) {
+            offenders = usingThreadLocal(classes);
+        } else {
+            try (FileSystem jar = FileSystems.newFileSystem(classes)) {
+                offenders = usingThreadLocal(jar.getPath("/"));
+            }
+        }
+
+        assertTrue(offenders.isEmpty(), "ThreadLocal used by " + offenders);
+    }
+
+    private static void drive() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String base = "http://localhost:" + service.port();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(new URI(base + "/hello?name=n" + i)).header("Cookie", "visited=once").build(),
+                                           HttpResponse.BodyHandlers.ofString()));
+            responses.add(client.sendAsync(HttpRequest.newBuilder(new URI(base + "/form"))
+                                                   .header("Content-Type", "application/x-www-form-urlencoded")
+                                                   .POST(HttpRequest.BodyPublishers.ofString("name=n" + i + "&user%5Bid%5D=" + i + "&pad=" + "x".repeat(64 * 1024)))
+                                                   .build(),
+                                           HttpResponse.BodyHandlers.ofString()));
+            for (String path : List.of("/fails", "/large", "/rows", "/published", "/page.html", "/missing")) {
+                responses.add(client.sendAsync(HttpRequest.newBuilder(new URI(base + path)).build(), HttpResponse.BodyHandlers.ofString()));
+            }
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            response.get(60, TimeUnit.SECONDS);
+        }
+        assertEquals("hello n0", responses.get(0).get().body(), "requests were served");
+        assertEquals("mapped", responses.get(2).get().body(), "exceptions were mapped");
+    }
+
+    private static List<String> usingThreadLocal(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.toString().endsWith(".class"))
+                    .filter(file -> {
+                        try {
+                            return THREAD_LOCAL.matcher(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1)).find();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .map(file -> root.relativize(file).toString())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String stack(RecordedEvent event) {
+        StringBuilder stack = new StringBuilder();
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            stack.append("    ").append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber()).append('\n');
+        }
+        return stack.toString();
+    }
+}
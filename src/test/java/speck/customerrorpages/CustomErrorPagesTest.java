@@ -7,10 +7,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import speck.AttributeKey;
 import speck.CustomErrorPages;
 import speck.Speck;
 import speck.util.SpeckTestUtil;
 
+import static speck.Speck.before;
 import static speck.Speck.get;
 import static speck.Speck.internalServerError;
 import static speck.Speck.notFound;
@@ -22,6 +24,8 @@ public class CustomErrorPagesTest {
     private static final String HELLO_WORLD = "hello world!";
     public static final String APPLICATION_JSON = "application/json";
     private static final String QUERY_PARAM_KEY = "qparkey";
+    private static final String ATTRIBUTE_PARAM_KEY = "attribute";
+    private static final AttributeKey<String> FILTERED_BY = AttributeKey.of("customErrorPagesTest.filteredBy", String.class);
 
     static SpeckTestUtil testUtil;
 
@@ -34,6 +38,8 @@ public class CustomErrorPagesTest {
     public static void setup() throws IOException {
         testUtil = new SpeckTestUtil(4567);
 
+        before((q, a) -> q.attribute(FILTERED_BY, "before filter"));
+
         get("/hello", (q, a) -> HELLO_WORLD);
 
         get("/raiseinternal", (q, a) -> {
@@ -46,6 +52,9 @@ public class CustomErrorPagesTest {
             if (request.queryParams(QUERY_PARAM_KEY) != null) {
                 throw new Exception();
             }
+            if (request.queryParams(ATTRIBUTE_PARAM_KEY) != null) {
+                return request.attribute(FILTERED_BY);
+            }
             response.type(APPLICATION_JSON);
             return CUSTOM_INTERNAL;
         });
@@ -82,4 +91,11 @@ public class CustomErrorPagesTest {
         assertEquals(CustomErrorPages.INTERNAL_ERROR, response.body);
     }
 
+    @Test
+    public void testCustomInternal_SeesFilterAttributes() throws Exception {
+        SpeckTestUtil.UrlResponse response = testUtil.doMethod("GET", "/raiseinternal?" + ATTRIBUTE_PARAM_KEY + "=1", null);
+        assertEquals(500, response.status);
+        assertEquals("before filter", response.body);
+    }
+
 }
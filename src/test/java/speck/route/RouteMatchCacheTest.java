@@ -0,0 +1,118 @@
+package speck.route;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import speck.FilterImpl;
+import speck.Request;
+import speck.Response;
+import speck.RouteImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RouteMatchCacheTest {
+
+    @Test
+    public void testResolve_CountsHitsAndMisses() {
+        Routes routes = Routes.create();
+        routes.matchCache(16);
+        routes.add(HttpMethod.get, route("/books/:id"));
+
+        ResolvedRoute first = routes.resolve(HttpMethod.get, "/books/42", null);
+        ResolvedRoute second = routes.resolve(HttpMethod.get, "/books/42", null);
+        routes.resolve(HttpMethod.get, "/books/42", "text/html");
+
+        assertSame(first, second, "Second lookup should be served from the cache");
+        assertEquals(1, routes.matchCache().hits());
+        assertEquals(2, routes.matchCache().misses(), "Accept header is part of the key");
+        assertEquals(2, routes.matchCache().size());
+    }
+
+    @Test
+    public void testResolve_IgnoresEntriesOfOlderRoutes() {
+        Routes routes = Routes.create();
+        routes.matchCache(16);
+        routes.add(HttpMethod.get, route("/books/:id"));
+        assertNotNull(routes.resolve(HttpMethod.get, "/books/42", null).getRoute());
+        assertEquals(0, routes.resolve(HttpMethod.get, "/books/42", null).getBeforeFilters().size());
+
+        FilterImpl filter = filter("/books/*");
+        routes.add(HttpMethod.before, filter);
+        ResolvedRoute resolved = routes.resolve(HttpMethod.get, "/books/42", null);
+        assertEquals(1, resolved.getBeforeFilters().size(), "Cache should be invalidated when routes change");
+        assertSame(filter, resolved.getBeforeFilters().get(0).getTarget());
+
+        routes.remove("/books/:id");
+        assertNull(routes.resolve(HttpMethod.get, "/books/42", null).getRoute());
+    }
+
+    @Test
+    public void testGet_DropsEntriesOfOlderTables() {
+        RouteMatchCache cache = new RouteMatchCache(4);
+        RouteMatchCache.Key key = new RouteMatchCache.Key(HttpMethod.get, "/books/42", null);
+        RouteTable older = RouteTable.EMPTY;
+        RouteTable current = RouteTable.of(List.of(new RouteEntry()));
+
+        // A lookup that resolved against the older table finishes after the cache was cleared
+        cache.put(key, older, new ResolvedRoute(List.of(), null, List.of(), List.of()));
+        assertEquals(1, cache.size());
+
+        assertNull(cache.get(key, current), "Entry of an older table should not be served");
+        assertEquals(0, cache.size(), "Entry of an older table should be dropped");
+    }
+
+    @Test
+    public void testPut_HighCardinalityRouteDoesNotEvictOtherRoutes() {
+        Routes routes = Routes.create();
+        routes.matchCache(8);
+        routes.add(HttpMethod.get, route("/health"));
+        routes.add(HttpMethod.get, route("/books/:id"));
+
+        routes.resolve(HttpMethod.get, "/health", null);
+        for (int i = 0; i < 1_000; i++) {
+            routes.resolve(HttpMethod.get, "/books/" + i, null);
+            routes.resolve(HttpMethod.get, "/health", null);
+        }
+
+        assertEquals(1, routes.matchCache().misses() - 1_000, "'/health' should have stayed cached");
+        assertEquals(3, routes.matchCache().size(), "'/books/:id' should use at most a quarter of the cache");
+    }
+
+    @Test
+    public void testPut_EvictsWhenFull() {
+        Routes routes = Routes.create();
+        routes.matchCache(4);
+        for (int i = 0; i < 8; i++) {
+            routes.add(HttpMethod.get, route("/route" + i));
+        }
+
+        for (int i = 0; i < 8; i++) {
+            routes.resolve(HttpMethod.get, "/route" + i, null);
+        }
+
+        assertEquals(4, routes.matchCache().size());
+    }
+
+    @Test
+    public void testConstructor_RejectsEmptyCache() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteMatchCache(0));
+    }
+
+    private static RouteImpl route(String path) {
+        return RouteImpl.create(path, (request, response) -> path);
+    }
+
+    private static FilterImpl filter(String path) {
+        return new FilterImpl(path, "*/*") {
+            @Override
+            public void handle(Request request, Response response) {
+                // no-op
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package speck.route;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoutePatternTest {
+
+    @Test
+    public void testParamSlots_AssignedAtCompileTime() {
+        RoutePattern pattern = RoutePattern.compile("/users/:userId/books/:bookId/*");
+
+        assertEquals(3, pattern.slotCount());
+        assertEquals(0, pattern.paramSlot(":userId"));
+        assertEquals(1, pattern.paramSlot("BOOKID"), "Param lookup should be case insensitive and ':' optional");
+        assertEquals(-1, pattern.paramSlot("missing"));
+        assertNull(pattern.paramName(2), "Splat slots have no name");
+    }
+
+    @Test
+    public void testCapture_ParamsAndSplat() {
+        RoutePattern pattern = RoutePattern.compile("/users/:id/files/*");
+        String path = "/users/42/files/a/b/c.txt/";
+        int[] captures = pattern.newCaptures();
+
+        assertTrue(pattern.matches(path));
+        pattern.capture(path, captures);
+
+        assertEquals("42", RoutePattern.captured(path, captures, pattern.paramSlot("id")));
+        assertEquals("a/b/c.txt", RoutePattern.captured(path, captures, 1));
+    }
+
+    @Test
+    public void testCapture_EmptySplatWithTrailingSlash() {
+        RoutePattern pattern = RoutePattern.compile("/files/*");
+        int[] captures = pattern.newCaptures();
+
+        assertTrue(pattern.matches("/files/"));
+        pattern.capture("/files/", captures);
+
+        assertNull(RoutePattern.captured("/files/", captures, 0));
+    }
+
+    @Test
+    public void testMatches_TrailingSlash() {
+        assertTrue(RoutePattern.compile("/test").matches("/test"));
+        assertFalse(RoutePattern.compile("/test").matches("/test/"));
+        assertFalse(RoutePattern.compile("/test/").matches("/test"));
+        assertFalse(RoutePattern.compile("/files/*").matches("/files"));
+    }
+
+    @Test
+    public void testMatchAndCapture_DoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        RoutePattern pattern = RoutePattern.compile("/api/:version/users/:id/files/*");
+        String path = "/api/v1/users/42/files/reports/2024.csv";
+        int[] captures = pattern.newCaptures();
+        int iterations = 100_000;
+
+        // warm up
+        matchAndCapture(pattern, path, captures, iterations);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int matched = matchAndCapture(pattern, path, captures, iterations);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(iterations, matched);
+        assertEquals(0, allocated / iterations, "Matching should not allocate, allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void testCovers() {
+        assertTrue(RoutePattern.compile("/api/*").covers(RoutePattern.compile("/api/books/:id")));
+        assertTrue(RoutePattern.compile("/api/*").covers(RoutePattern.compile("/api/*")));
+        assertTrue(RoutePattern.compile("/api/*").covers(RoutePattern.compile("/api/")), "Trailing splat matches a trailing slash");
+        assertTrue(RoutePattern.compile("/books/:id").covers(RoutePattern.compile("/books/42")));
+        assertTrue(RoutePattern.compile("/*/:id").covers(RoutePattern.compile("/books/:id")));
+
+        assertFalse(RoutePattern.compile("/api/*").covers(RoutePattern.compile("/api")));
+        assertFalse(RoutePattern.compile("/books/42").covers(RoutePattern.compile("/books/:id")));
+        assertFalse(RoutePattern.compile("/books/:id").covers(RoutePattern.compile("/books/:id/")));
+        assertFalse(RoutePattern.compile("/api/v1/*").covers(RoutePattern.compile("/api/*")));
+        assertFalse(RoutePattern.compile("/api*").covers(RoutePattern.compile("/api")), "Irregular patterns are never decided");
+    }
+
+    @Test
+    public void testDisjoint() {
+        assertTrue(RoutePattern.compile("/admin/*").disjoint(RoutePattern.compile("/api/books/:id")));
+        assertTrue(RoutePattern.compile("/books/:id").disjoint(RoutePattern.compile("/books/:id/pages")));
+        assertTrue(RoutePattern.compile("/books/:id").disjoint(RoutePattern.compile("/books/:id/")));
+        assertTrue(RoutePattern.compile("/books/*").disjoint(RoutePattern.compile("/books")));
+
+        assertFalse(RoutePattern.compile("/books/42").disjoint(RoutePattern.compile("/books/:id")));
+        assertFalse(RoutePattern.compile("/*").disjoint(RoutePattern.compile("/books/:id")));
+        assertFalse(RoutePattern.compile("/books/*").disjoint(RoutePattern.compile("/books/")));
+    }
+
+    @Test
+    public void testCoversAndDisjoint_AgreeWithMatches() {
+        String[] segments = {"a", "b", ":p", "*"};
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            RoutePattern filter = RoutePattern.compile(randomPath(random, segments));
+            RoutePattern route = RoutePattern.compile(randomPath(random, segments));
+            boolean covers = filter.covers(route);
+            boolean disjoint = filter.disjoint(route);
+
+            for (int j = 0; j < 20; j++) {
+                String path = randomPath(random, new String[]{"a", "b", "c"});
+                if (route.matches(path)) {
+                    assertTrue(!covers || filter.matches(path), filter + " should cover " + route + " for " + path);
+                    assertTrue(!disjoint || !filter.matches(path), filter + " should not match " + path + " like " + route);
+                }
+            }
+        }
+    }
+
+    private static String randomPath(Random random, String[] segments) {
+        StringBuilder path = new StringBuilder();
+        int length = random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        if (length == 0 || random.nextInt(4) == 0) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+
+    private static int matchAndCapture(RoutePattern pattern, String path, int[] captures, int iterations) {
+        int matched = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (pattern.matches(path)) {
+                pattern.capture(path, captures);
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,115 @@
+package speck.route;
+
+import org.junit.jupiter.api.Test;
+
+import speck.utils.SpeckUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RouteTrieTest {
+
+    @Test
+    public void testFind_FirstMappedWins() {
+        List<RouteEntry> routes = List.of(
+                entry(HttpMethod.get, "/books/:id"),
+                entry(HttpMethod.get, "/books/new"),
+                entry(HttpMethod.get, "/books/*"));
+
+        List<RouteEntry> found = RouteTrie.build(routes).find(HttpMethod.get, "/books/new");
+
+        assertEquals(routes, found, "Should return every matching route in the order it was mapped");
+    }
+
+    @Test
+    public void testFind_LiteralParamAndSplat() {
+        RouteEntry literal = entry(HttpMethod.get, "/api/health");
+        RouteEntry param = entry(HttpMethod.get, "/api/:resource/:id");
+        RouteEntry splat = entry(HttpMethod.get, "/files/*");
+        RouteTrie trie = RouteTrie.build(List.of(literal, param, splat));
+
+        assertEquals(List.of(literal), trie.find(HttpMethod.get, "/api/health"));
+        assertEquals(List.of(param), trie.find(HttpMethod.get, "/api/books/42"));
+        assertEquals(List.of(splat), trie.find(HttpMethod.get, "/files/a/b/c.txt"));
+        assertTrue(trie.find(HttpMethod.get, "/files").isEmpty(), "A splat needs at least one segment");
+        assertTrue(trie.find(HttpMethod.post, "/api/health").isEmpty(), "Should not match other http methods");
+    }
+
+    @Test
+    public void testFind_TrailingSlashRules() {
+        RouteEntry withoutSlash = entry(HttpMethod.get, "/test");
+        RouteEntry withSlash = entry(HttpMethod.get, "/other/");
+        RouteEntry splat = entry(HttpMethod.get, "/files/*");
+        RouteTrie trie = RouteTrie.build(List.of(withoutSlash, withSlash, splat));
+
+        assertEquals(List.of(withoutSlash), trie.find(HttpMethod.get, "/test"));
+        assertTrue(trie.find(HttpMethod.get, "/test/").isEmpty());
+        assertEquals(List.of(withSlash), trie.find(HttpMethod.get, "/other/"));
+        assertTrue(trie.find(HttpMethod.get, "/other").isEmpty());
+        assertEquals(List.of(splat), trie.find(HttpMethod.get, "/files/"));
+    }
+
+    @Test
+    public void testFind_AllPathsFilter() {
+        RouteEntry filter = entry(HttpMethod.before, SpeckUtils.ALL_PATHS);
+        RouteEntry pathFilter = entry(HttpMethod.before, "/protected/*");
+        RouteTrie trie = RouteTrie.build(List.of(filter, pathFilter));
+
+        assertEquals(List.of(filter, pathFilter), trie.find(HttpMethod.before, "/protected/resource"));
+        assertEquals(List.of(filter), trie.find(HttpMethod.before, "/public"));
+    }
+
+    @Test
+    public void testFind_SameResultsAsLinearScan() {
+        String[] routeSegments = {"a", "b", ":id", ":name", "*", "a*", ""};
+        String[] pathSegments = {"a", "b", "c", "", "*", ":id"};
+        HttpMethod[] methods = {HttpMethod.get, HttpMethod.post, HttpMethod.before};
+        Random random = new Random(1);
+
+        for (int iteration = 0; iteration < 500; iteration++) {
+            List<RouteEntry> routes = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                routes.add(entry(methods[random.nextInt(methods.length)], randomPath(random, routeSegments)));
+            }
+            RouteTrie trie = RouteTrie.build(routes);
+
+            for (int lookup = 0; lookup < 50; lookup++) {
+                HttpMethod method = methods[random.nextInt(methods.length)];
+                String path = randomPath(random, pathSegments);
+
+                List<RouteEntry> expected = new ArrayList<>();
+                for (RouteEntry route : routes) {
+                    if (route.matches(method, path)) {
+                        expected.add(route);
+                    }
+                }
+                assertEquals(expected, trie.find(method, path), method + " " + path + " against " + routes);
+            }
+        }
+    }
+
+    private static String randomPath(Random random, String[] segments) {
+        StringBuilder path = new StringBuilder();
+        int size = random.nextInt(4);
+        for (int i = 0; i < size; i++) {
+            path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        if (path.length() == 0 || random.nextInt(4) == 0) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+
+    private static RouteEntry entry(HttpMethod httpMethod, String path) {
+        RouteEntry entry = new RouteEntry();
+        entry.httpMethod = httpMethod;
+        entry.path = path;
+        entry.acceptedType = "*/*";
+        entry.target = new Object();
+        return entry;
+    }
+}
@@ -0,0 +1,44 @@
+package speck.route;
+
+import speck.RouteImpl;
+import speck.util.Benchmark;
+
+/**
+ * Scalability benchmark for {@link Routes#find(HttpMethod, String, String)}: the time per lookup should stay flat
+ * while the number of routes grows.
+ */
+public class RoutesBenchmark {
+
+    private static final int[] ROUTE_COUNTS = {10, 100, 1_000, 10_000};
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        for (int routeCount : ROUTE_COUNTS) {
+            Routes routes = Routes.create();
+            routes.batch(() -> {
+                for (int i = 0; i < routeCount; i++) {
+                    routes.add(HttpMethod.get, route("/api/v1/resource" + i + "/:id"));
+                    routes.add(HttpMethod.post, route("/api/v1/resource" + i));
+                    routes.add(HttpMethod.get, route("/static" + i + "/*"));
+                }
+            });
+
+            String[] paths = new String[64];
+            for (int i = 0; i < paths.length; i++) {
+                int resource = (i * 7919) % routeCount;
+                paths[i] = (i % 2 == 0) ? "/api/v1/resource" + resource + "/42" : "/static" + resource + "/css/site.css";
+            }
+
+            int[] next = new int[1];
+            for (int round = 0; round < 2; round++) {
+                // The first round warms up
+                Benchmark.measure(String.format("%,d routes", routeCount * 3), LOOKUPS,
+                                  () -> routes.find(HttpMethod.get, paths[next[0]++ & (paths.length - 1)], null));
+            }
+        }
+    }
+
+    private static RouteImpl route(String path) {
+        return RouteImpl.create(path, (request, response) -> "");
+    }
+}
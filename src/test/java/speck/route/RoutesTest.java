@@ -0,0 +1,272 @@
+package speck.route;
+
+import org.junit.jupiter.api.Test;
+
+import speck.FilterImpl;
+import speck.Request;
+import speck.Response;
+import speck.RouteImpl;
+import speck.routematch.RouteMatch;
+import speck.utils.SpeckUtils;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoutesTest {
+
+    @Test
+    public void testFind_OnlyLooksAtRequestedMethod() {
+        Routes routes = Routes.create();
+        RouteImpl post = route("/books/:id");
+        RouteImpl get = route("/books/:id");
+        routes.add(HttpMethod.post, post);
+        routes.add(HttpMethod.before, filter("/books/:id"));
+        routes.add(HttpMethod.get, get);
+
+        assertSame(get, routes.find(HttpMethod.get, "/books/1", null).getTarget());
+        assertSame(post, routes.find(HttpMethod.post, "/books/1", null).getTarget());
+        assertNull(routes.find(HttpMethod.put, "/books/1", null));
+    }
+
+    @Test
+    public void testFindMultiple_FiltersInMappingOrder() {
+        Routes routes = Routes.create();
+        FilterImpl first = filter("/admin/*");
+        FilterImpl second = filter("/admin/:page");
+        routes.add(HttpMethod.before, first);
+        routes.add(HttpMethod.after, filter("/admin/*"));
+        routes.add(HttpMethod.before, second);
+
+        List<RouteMatch> matches = routes.findMultiple(HttpMethod.before, "/admin/users", null);
+
+        assertEquals(2, matches.size());
+        assertSame(first, matches.get(0).getTarget());
+        assertSame(second, matches.get(1).getTarget());
+    }
+
+    @Test
+    public void testFind_SeesRoutesAddedAndRemovedAfterLookup() {
+        Routes routes = Routes.create();
+        routes.add(HttpMethod.get, route("/first"));
+        assertNull(routes.find(HttpMethod.get, "/second", null));
+
+        routes.add(HttpMethod.get, route("/second"));
+        assertTrue(routes.find(HttpMethod.get, "/second", null) != null);
+
+        routes.remove("/second", "get");
+        assertNull(routes.find(HttpMethod.get, "/second", null));
+
+        routes.clear();
+        assertNull(routes.find(HttpMethod.get, "/first", null));
+    }
+
+    @Test
+    public void testFind_NegotiatesAcceptType() {
+        Routes routes = Routes.create();
+        RouteImpl json = RouteImpl.create("/books", "application/json", (request, response) -> "json");
+        RouteImpl html = RouteImpl.create("/books", "text/html", (request, response) -> "html");
+        routes.add(HttpMethod.get, json);
+        routes.add(HttpMethod.get, html);
+
+        for (int i = 0; i < 2; i++) {
+            assertSame(json, routes.find(HttpMethod.get, "/books", "application/json").getTarget());
+            assertSame(html, routes.find(HttpMethod.get, "/books", "text/html,application/xml;q=0.9").getTarget());
+            assertNull(routes.find(HttpMethod.get, "/books", "image/png"));
+        }
+
+        RouteImpl png = RouteImpl.create("/books", "image/png", (request, response) -> "png");
+        routes.add(HttpMethod.get, png);
+        assertSame(png, routes.find(HttpMethod.get, "/books", "image/png").getTarget(),
+                   "Cached negotiation results should not hide routes added later");
+    }
+
+    @Test
+    public void testFindMultiple_FiltersOnAcceptType() {
+        Routes routes = Routes.create();
+        FilterImpl any = filter("/books");
+        FilterImpl json = new FilterImpl("/books", "application/json") {
+            @Override
+            public void handle(Request request, Response response) {
+                // no-op
+            }
+        };
+        routes.add(HttpMethod.before, any);
+        routes.add(HttpMethod.before, json);
+
+        assertEquals(2, routes.findMultiple(HttpMethod.before, "/books", "application/json").size());
+        assertEquals(1, routes.findMultiple(HttpMethod.before, "/books", "text/html").size());
+        assertSame(any, routes.findMultiple(HttpMethod.before, "/books", "text/html").get(0).getTarget());
+    }
+
+    @Test
+    public void testBatch_PublishesOnceDone() {
+        Routes routes = Routes.create();
+        routes.add(HttpMethod.get, route("/old"));
+
+        routes.batch(() -> {
+            routes.add(HttpMethod.get, route("/new"));
+            routes.remove("/old");
+            routes.batch(() -> routes.add(HttpMethod.get, route("/nested")));
+
+            assertTrue(routes.find(HttpMethod.get, "/old", null) != null, "Changes should not be visible before the batch ends");
+            assertNull(routes.find(HttpMethod.get, "/new", null), "Changes should not be visible before the batch ends");
+        });
+
+        assertNull(routes.find(HttpMethod.get, "/old", null));
+        assertTrue(routes.find(HttpMethod.get, "/new", null) != null);
+        assertTrue(routes.find(HttpMethod.get, "/nested", null) != null);
+        assertEquals(2, routes.findAll().size());
+    }
+
+    @Test
+    public void testAdd_PublishesOnLookup() {
+        Routes routes = Routes.create();
+        for (int i = 0; i < 2_000; i++) {
+            routes.add(HttpMethod.get, route("/resource" + i + "/:id"));
+        }
+        assertSame(RouteTable.EMPTY, routes.published(), "Adding routes should not publish them one by one");
+
+        assertTrue(routes.find(HttpMethod.get, "/resource1999/42", null) != null, "A lookup should publish the routes");
+        RouteTable published = routes.published();
+        assertEquals(2_000, published.entries.size());
+
+        routes.find(HttpMethod.get, "/resource0/42", null);
+        assertSame(published, routes.published(), "Lookups should not publish again without changes");
+    }
+
+    @Test
+    public void testFind_WhileRoutesChange() throws InterruptedException {
+        Routes routes = Routes.create();
+        RouteImpl stable = route("/stable/:id");
+        routes.add(HttpMethod.get, stable);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch readersDone = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        RouteMatch match = routes.find(HttpMethod.get, "/stable/1", null);
+                        if (match == null || match.getTarget() != stable) {
+                            throw new AssertionError("Stable route not found while other routes changed");
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    readersDone.countDown();
+                }
+            });
+            reader.start();
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            routes.add(HttpMethod.get, route("/dynamic/" + i));
+            if (i % 2 == 0) {
+                routes.remove("/dynamic/" + i, "get");
+            }
+        }
+        done.set(true);
+        readersDone.await();
+
+        assertNull(failure.get(), "Lookups failed while routes changed: " + failure.get());
+        assertEquals(1_001, routes.findAll().size());
+    }
+
+    @Test
+    public void testResolve_SameMatchesAsSeparateLookups() {
+        String[] patterns = {"/api/*", "/api/:version/books", "/api/v1/books/:id", "/admin/*", "/*",
+                             "/api/v1/books/", "/api/v1/*", "/books*", "/api/v1/books/42"};
+        String[] paths = {"/api/v1/books", "/api/v1/books/42", "/api/v1/books/", "/admin/users", "/books",
+                          "/api/v2/books", "/", "/api/", "/booksx"};
+        String[] acceptTypes = {null, "*/*", "text/html"};
+        Random random = new Random(7);
+
+        for (int round = 0; round < 200; round++) {
+            Routes routes = Routes.create();
+            for (int i = 0; i < 8; i++) {
+                String pattern = patterns[random.nextInt(patterns.length)];
+                switch (random.nextInt(5)) {
+                    case 0 -> routes.add(HttpMethod.before, filter(pattern));
+                    case 1 -> routes.add(HttpMethod.after, filter(pattern));
+                    case 2 -> routes.add(HttpMethod.afterafter, filter(random.nextBoolean() ? pattern : SpeckUtils.ALL_PATHS));
+                    default -> routes.add(HttpMethod.get, route(pattern));
+                }
+            }
+
+            for (String path : paths) {
+                for (String acceptType : acceptTypes) {
+                    ResolvedRoute resolved = routes.resolve(HttpMethod.get, path, acceptType);
+                    RouteMatch route = routes.find(HttpMethod.get, path, acceptType);
+
+                    assertSame(route != null ? route.getTarget() : null,
+                               resolved.getRoute() != null ? resolved.getRoute().getTarget() : null);
+                    assertSameTargets(routes.findMultiple(HttpMethod.before, path, acceptType), resolved.getBeforeFilters());
+                    assertSameTargets(routes.findMultiple(HttpMethod.after, path, acceptType), resolved.getAfterFilters());
+                    assertSameTargets(routes.findMultiple(HttpMethod.afterafter, path, acceptType), resolved.getAfterAfterFilters());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResolve_HeadAndOptionsWithoutOwnRoute() {
+        Routes routes = Routes.create();
+        routes.add(HttpMethod.get, route("/books/:id"));
+        routes.add(HttpMethod.delete, route("/books/:id"));
+        routes.add(HttpMethod.post, route("/books"));
+        routes.add(HttpMethod.before, filter("/books/*"));
+
+        ResolvedRoute head = routes.resolve(HttpMethod.head, "/books/42", null);
+        assertNull(head.getRoute());
+        assertTrue(head.isServedByGet(), "HEAD should be answered by the GET route");
+        assertEquals(1, head.getBeforeFilters().size(), "Filters still run for HEAD");
+        assertFalse(routes.resolve(HttpMethod.head, "/books", null).isServedByGet());
+
+        assertEquals(EnumSet.of(HttpMethod.get, HttpMethod.delete),
+                     routes.resolve(HttpMethod.options, "/books/42", null).getAllowedMethods());
+        assertEquals(Set.of(HttpMethod.post), routes.resolve(HttpMethod.options, "/books", null).getAllowedMethods());
+        assertTrue(routes.resolve(HttpMethod.options, "/authors", null).getAllowedMethods().isEmpty());
+        assertTrue(routes.resolve(HttpMethod.get, "/books/42", null).getAllowedMethods().isEmpty(),
+                   "Only computed for requests without a route");
+
+        routes.add(HttpMethod.head, route("/books/:id"));
+        ResolvedRoute ownHead = routes.resolve(HttpMethod.head, "/books/42", null);
+        assertNotNull(ownHead.getRoute());
+        assertFalse(ownHead.isServedByGet(), "An explicit HEAD route wins");
+    }
+
+    private static void assertSameTargets(List<RouteMatch> expected, List<RouteMatch> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i).getTarget(), actual.get(i).getTarget());
+            assertEquals(expected.get(i).getMatchUri(), actual.get(i).getMatchUri());
+        }
+    }
+
+    private static RouteImpl route(String path) {
+        return RouteImpl.create(path, (request, response) -> path);
+    }
+
+    private static FilterImpl filter(String path) {
+        return new FilterImpl(path, "*/*") {
+            @Override
+            public void handle(Request request, Response response) {
+                // no-op
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package speck.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import speck.util.Benchmark;
+
+/**
+ * Compares {@link BytesSerializer} with copying every buffer to a fresh heap array first, which is the only
+ * way the former {@code write(byteBuffer.array())} could have sent direct, read-only or sliced buffers right.
+ */
+public class BytesSerializerBenchmark {
+
+    private static final int ITERATIONS = 200_000;
+    private static final int SIZE = 32 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        ByteBuffer heap = ByteBuffer.wrap(new byte[SIZE + 64]).position(32).slice().limit(SIZE);
+        ByteBuffer direct = ByteBuffer.allocateDirect(SIZE);
+
+        Map<String, Object> bodies = new LinkedHashMap<>();
+        bodies.put("byte[]", new byte[SIZE]);
+        bodies.put("heap slice", heap);
+        bodies.put("direct", direct);
+        bodies.put("read-only", heap.asReadOnlyBuffer());
+        bodies.put("ByteBuffer[]", new ByteBuffer[]{heap.duplicate().limit(SIZE / 2), direct.duplicate().position(SIZE / 2)});
+        bodies.put("List<ByteBuffer>", List.of(heap.duplicate().limit(SIZE / 2), direct.duplicate().position(SIZE / 2)));
+
+        BytesSerializer serializer = new BytesSerializer();
+        OutputStream discard = new Discard();
+
+        for (int round = 0; round < 3; round++) {
+            for (Map.Entry<String, Object> body : bodies.entrySet()) {
+                Benchmark.measure(body.getKey(), ITERATIONS, () -> {
+                    serializer.process(discard, body.getValue());
+                    return null;
+                });
+                Benchmark.measure(body.getKey() + " copied", ITERATIONS, () -> {
+                    copyToHeap(discard, body.getValue());
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static void copyToHeap(OutputStream outputStream, Object body) throws IOException {
+        if (body instanceof byte[] bytes) {
+            outputStream.write(bytes.clone());
+            return;
+        }
+        List<?> buffers = body instanceof ByteBuffer ? List.of(body) : body instanceof ByteBuffer[] array ? List.of(array) : (List<?>) body;
+        for (Object buffer : buffers) {
+            ByteBuffer duplicate = ((ByteBuffer) buffer).duplicate();
+            byte[] bytes = new byte[duplicate.remaining()];
+            duplicate.get(bytes);
+            outputStream.write(bytes);
+        }
+    }
+
+    private static final class Discard extends OutputStream {
+
+        private int sink;
+
+        @Override
+        public void write(int b) {
+            sink += b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sink += len > 0 ? b[off] + b[off + len - 1] : 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package speck.serialization;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BytesSerializerTest {
+
+    private BytesSerializer serializer = new BytesSerializer();
+
+    @Test
+    public void testProcess_heapBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes("Hello, Speck!"));
+
+        assertEquals("Hello, Speck!", serialize(buffer));
+        assertEquals(13, serializer.contentLength(buffer));
+    }
+
+    @Test
+    public void testProcess_slice_onlyBytesBetweenPositionAndLimit() throws IOException {
+        ByteBuffer slice = ByteBuffer.wrap(bytes("xxHello, Speck!xx")).position(2).slice().limit(13);
+        ByteBuffer window = ByteBuffer.wrap(bytes("xxHello, Speck!xx")).position(2).limit(15);
+
+        assertEquals("Hello, Speck!", serialize(slice));
+        assertEquals("Hello, Speck!", serialize(window));
+        assertEquals(13, serializer.contentLength(slice));
+    }
+
+    @Test
+    public void testProcess_directBuffer() throws IOException {
+        byte[] bytes = new byte[100_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        serializer.process(output, direct);
+
+        assertArrayEquals(bytes, output.toByteArray());
+        assertEquals(bytes.length, serializer.contentLength(direct));
+    }
+
+    @Test
+    public void testProcess_readOnlyBuffer() throws IOException {
+        ByteBuffer readOnly = ByteBuffer.wrap(bytes("Hello, Speck!")).asReadOnlyBuffer();
+
+        assertEquals("Hello, Speck!", serialize(readOnly));
+    }
+
+    @Test
+    public void testProcess_leavesBufferUntouched() throws IOException {
+        ByteBuffer direct = ByteBuffer.allocateDirect(5).put(bytes("Speck")).flip();
+
+        assertEquals("Speck", serialize(direct));
+        assertEquals("Speck", serialize(direct), "Same buffer should be sendable again");
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void testProcess_arrayAndListOfBuffers() throws IOException {
+        ByteBuffer[] buffers = {ByteBuffer.wrap(bytes("Hello")),
+                                ByteBuffer.allocateDirect(2).put(bytes(", ")).flip(),
+                                ByteBuffer.wrap(bytes("Speck!")).asReadOnlyBuffer()};
+
+        assertEquals("Hello, Speck!", serialize(buffers));
+        assertEquals("Hello, Speck!", serialize(List.of(buffers)));
+        assertEquals(13, serializer.contentLength(buffers));
+        assertEquals(13, serializer.contentLength(List.of(buffers)));
+    }
+
+    @Test
+    public void testCanProcess_onlyListsOfBuffers() {
+        assertTrue(serializer.canProcess(List.of(ByteBuffer.allocate(1))));
+        assertFalse(serializer.canProcess(List.of(ByteBuffer.allocate(1), "text")));
+        assertFalse(serializer.canProcess(List.of()));
+    }
+
+    @Test
+    public void testProcess_gatherWriteToChannel() throws IOException {
+        ChannelOutput output = new ChannelOutput();
+        ByteBuffer first = ByteBuffer.wrap(bytes("Hello"));
+        ByteBuffer second = ByteBuffer.allocateDirect(8).put(bytes(", Speck!")).flip();
+
+        serializer.process(output, new ByteBuffer[]{first, second});
+
+        assertEquals("Hello, Speck!", output.toString(StandardCharsets.UTF_8));
+        assertEquals(1, output.gatherWrites, "Buffers should be handed over in one gather write");
+        assertEquals(0, first.position());
+        assertEquals(0, second.position());
+    }
+
+    private String serialize(Object element) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializer.process(output, element);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class ChannelOutput extends ByteArrayOutputStream implements GatheringByteChannel {
+
+        int gatherWrites = 0;
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            long written = 0;
+            for (int i = offset; i < offset + length; i++) {
+                written += write(srcs[i]);
+            }
+            return written;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            gatherWrites++;
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int remaining = src.remaining();
+            byte[] bytes = new byte[remaining];
+            src.get(bytes);
+            write(bytes, 0, remaining);
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package speck.serialization;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import speck.util.Benchmark;
+
+/**
+ * Compares {@link CharSequenceSerializer} with the former {@code toString().getBytes(UTF_8)} for pages of several
+ * sizes, as String and as StringBuilder. For large pages the serializer should allocate a small fraction of what
+ * getBytes does, which also allocates the whole page in bytes, at the same or better throughput.
+ */
+public class CharSequenceSerializerBenchmark {
+
+    private static final long BYTES_PER_ROUND = 512L * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        String row = "<tr><td>42</td><td>Speck</td><td>micro web framework</td></tr>\n";
+        String accented = "<tr><td>42</td><td>Se\u00f1or Caf\u00e9</td><td>d\u00e9j\u00e0 vu, 5 \u20ac</td></tr>\n";
+
+        CharSequenceSerializer serializer = new CharSequenceSerializer();
+        OutputStream discard = new Discard();
+
+        for (int round = 0; round < 3; round++) {
+            for (int size : List.of(200, 16 * 1024, 5 * 1024 * 1024)) {
+                for (String text : List.of(page(row, size), page(accented, size))) {
+                    String kind = (text.startsWith(accented) ? "latin-1 " : "ascii ") + size;
+                    StringBuilder builder = new StringBuilder(text);
+                    int iterations = (int) Math.max(1, BYTES_PER_ROUND / size);
+
+                    Benchmark.measure(kind + " String", iterations, () -> {
+                        serializer.process(discard, text);
+                        return null;
+                    });
+                    Benchmark.measure(kind + " builder", iterations, () -> {
+                        serializer.process(discard, builder);
+                        return null;
+                    });
+                    Benchmark.measure(kind + " getBytes", iterations, () -> {
+                        discard.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+                        return null;
+                    });
+                }
+            }
+        }
+    }
+
+    private static String page(String row, int size) {
+        StringBuilder page = new StringBuilder(size + row.length());
+        while (page.length() < size) {
+            page.append(row);
+        }
+        page.setLength(size);
+        return page.toString();
+    }
+
+    private static final class Discard extends OutputStream {
+
+        private int sink;
+
+        @Override
+        public void write(int b) {
+            sink += b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sink += len > 0 ? b[off] + b[off + len - 1] : 0;
+        }
+    }
+}
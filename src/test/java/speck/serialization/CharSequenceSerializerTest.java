@@ -0,0 +1,132 @@
+package speck.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CharSequenceSerializerTest {
+
+    private final CharSequenceSerializer serializer = new CharSequenceSerializer();
+
+    @Test
+    public void testCanProcess_CharSequences() {
+        assertTrue(serializer.canProcess("text"), "String");
+        assertTrue(serializer.canProcess(new StringBuilder("text")), "StringBuilder");
+        assertTrue(serializer.canProcess(CharBuffer.wrap("text")), "CharBuffer");
+        assertFalse(serializer.canProcess(42), "not a CharSequence");
+    }
+
+    @Test
+    public void testProcess_SmallString() throws IOException {
+        assertArrayEquals("h\u00e9llo \u20ac".getBytes(StandardCharsets.UTF_8), process("h\u00e9llo \u20ac"), "same bytes as getBytes");
+    }
+
+    @Test
+    public void testProcess_AsciiAcrossChunks() throws IOException {
+        String text = "0123456789abcdef".repeat(2000);
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), process(new StringBuilder(text)), "StringBuilder");
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), process(text), "large String");
+    }
+
+    @Test
+    public void testProcess_MultiByteAcrossChunks() throws IOException {
+        // 1, 2, 3 and 4 byte sequences, shifted so that they end up on every position of the chunk boundaries
+        String text = "a\u00e9\u20ac\ud83d\ude00".repeat(5000);
+        for (int shift = 0; shift < 4; shift++) {
+            String shifted = "x".repeat(shift) + text;
+            assertArrayEquals(shifted.getBytes(StandardCharsets.UTF_8), process(new StringBuilder(shifted)), "shift " + shift);
+        }
+    }
+
+    @Test
+    public void testProcess_Latin1() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append((char) (0x20 + i % 0xe0));
+        }
+        assertArrayEquals(text.toString().getBytes(StandardCharsets.UTF_8), process(text), "two bytes for chars above 0x7f");
+    }
+
+    @Test
+    public void testProcess_UnpairedSurrogates() throws IOException {
+        String text = "x".repeat(2000) + "\ud83d" + "y" + "\ude00" + "\ud83d";
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), process(new StringBuilder(text)), "replaced with '?' like getBytes");
+    }
+
+    @Test
+    public void testProcess_OtherCharSequences() throws IOException {
+        String text = "a\u00e9\u20ac\ud83d\ude00".repeat(1000);
+        byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+        CharBuffer buffer = CharBuffer.wrap("--" + text).position(2).slice();
+
+        assertArrayEquals(expected, process(buffer), "CharBuffer from its position");
+        assertEquals(0, buffer.position(), "CharBuffer position is left untouched");
+        assertArrayEquals(expected, process(new StringBuffer(text)), "StringBuffer");
+        assertArrayEquals(expected, process(new Wrapper(text)), "any CharSequence, through charAt");
+    }
+
+    @Test
+    public void testProcess_Empty() throws IOException {
+        assertEquals(0, process(new StringBuilder()).length, "nothing written");
+    }
+
+    @Test
+    public void testProcess_WritesInChunks() throws IOException {
+        int[] largestWrite = new int[1];
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                largestWrite[0] = Math.max(largestWrite[0], 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                largestWrite[0] = Math.max(largestWrite[0], len);
+            }
+        };
+
+        serializer.process(output, "z".repeat(1024 * 1024));
+
+        assertTrue(largestWrite[0] <= 8 * 1024, "a 1 MB text is written through a small chunk, largest write " + largestWrite[0]);
+    }
+
+    private byte[] process(CharSequence chars) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        serializer.process(output, chars);
+        return output.toByteArray();
+    }
+
+    private record Wrapper(String text) implements CharSequence {
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package speck.serialization;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FileSerializerTest {
+
+    private FileSerializer serializer = new FileSerializer();
+
+    @Test
+    public void testProcess_copiesPath() throws IOException {
+        byte[] bytes = randomBytes(200_000);
+        Path file = write("artifact.json", bytes);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        serializer.process(output, file);
+
+        assertArrayEquals(bytes, output.toByteArray());
+        assertEquals(bytes.length, serializer.contentLength(file));
+        assertEquals("application/json", serializer.contentType(file));
+    }
+
+    @Test
+    public void testProcess_copiesRegion() throws IOException {
+        byte[] bytes = randomBytes(100_000);
+        Path file = write("artifact.bin", bytes);
+        FileRegion region = new FileRegion(file, 1_000, 70_000);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        serializer.process(output, region);
+
+        assertArrayEquals(Arrays.copyOfRange(bytes, 1_000, 71_000), output.toByteArray());
+        assertEquals(70_000, serializer.contentLength(region));
+    }
+
+    @Test
+    public void testProcess_regionPastEndOfFile() throws IOException {
+        Path file = write("short.bin", randomBytes(10));
+
+        assertThrows(EOFException.class,
+                     () -> serializer.process(new ByteArrayOutputStream(), new FileRegion(file, 5, 10)));
+    }
+
+    @Test
+    public void testProcess_copiesChannelFromItsPositionAndClosesIt() throws IOException {
+        byte[] bytes = randomBytes(1_000);
+        Path file = write("artifact.bin", bytes);
+        FileChannel channel = FileChannel.open(file);
+        channel.position(600);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(400, serializer.contentLength(channel));
+        assertNull(serializer.contentType(channel));
+        serializer.process(output, channel);
+
+        assertArrayEquals(Arrays.copyOfRange(bytes, 600, 1_000), output.toByteArray());
+        assertFalse(channel.isOpen(), "Expected channel to be closed");
+    }
+
+    private static Path write(String name, byte[] bytes) throws IOException {
+        Path file = Files.createTempFile("speck", name);
+        file.toFile().deleteOnExit();
+        return Files.write(file, bytes);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
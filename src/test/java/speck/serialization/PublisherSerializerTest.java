@@ -0,0 +1,196 @@
+package speck.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PublisherSerializerTest {
+
+    private final SerializerChain chain = new SerializerChain();
+
+    @Test
+    public void testProcess_BuffersAndStrings() throws IOException {
+        Flow.Publisher<Object> publisher = new ListPublisher(
+                List.of(ByteBuffer.wrap("ab".getBytes(StandardCharsets.UTF_8)), "c\u00e9", "d".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("ab" + "c\u00e9" + "d", process(publisher), "each item written by the serializer of its class");
+        assertTrue(chain.serializerFor(publisher, null).streams(publisher), "sent in chunks");
+        assertInstanceOf(PublisherSerializer.class, chain.serializerFor(publisher, null), "publishers are recognized");
+    }
+
+    @Test
+    public void testProcess_Empty() throws IOException {
+        assertEquals("", process(new ListPublisher(List.of())), "nothing written");
+    }
+
+    @Test
+    public void testProcess_DemandFollowsTheReader() throws Exception {
+        ListPublisher publisher = new ListPublisher(List.of("1", "2", "3", "4", "5", "6", "7", "8"));
+        // A client that reads one write at a time, when the test lets it
+        Semaphore reads = new Semaphore(0);
+        OutputStream throttled = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                reads.acquireUninterruptibly();
+            }
+        };
+
+        CompletableFuture<Void> response = CompletableFuture.runAsync(() -> {
+            try {
+                chain.serializerFor(publisher, null).process(throttled, publisher);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        for (int read = 0; read < 3; read++) {
+            Thread.sleep(50);
+            assertEquals(read + 1, publisher.requested.get(), "one item requested per item the client read, after " + read + " reads");
+            reads.release();
+        }
+        reads.release(5);
+        response.get(5, TimeUnit.SECONDS);
+        assertEquals(9, publisher.requested.get(), "every item requested, plus the request that finds the end");
+    }
+
+    @Test
+    public void testProcess_SlowClientSlowsDownProducer() throws Exception {
+        SubmissionPublisher<String> publisher = new SubmissionPublisher<>(Runnable::run, 4);
+        Semaphore reads = new Semaphore(0);
+        OutputStream throttled = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                reads.acquireUninterruptibly();
+            }
+        };
+        CompletableFuture<Void> response = CompletableFuture.runAsync(() -> {
+            try {
+                chain.serializerFor(publisher, null).process(throttled, publisher);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        while (publisher.getNumberOfSubscribers() == 0) {
+            Thread.sleep(1);
+        }
+
+        // The producer can only get ahead of the client by the buffer of the publisher
+        int submitted = 0;
+        while (submitted < 100 && publisher.offer("x", null) >= 0) {
+            submitted++;
+        }
+        assertTrue(submitted < 10, "producer is held back while the client doesn't read, submitted " + submitted);
+
+        reads.release(Integer.MAX_VALUE / 2);
+        publisher.close();
+        response.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testProcess_WriteFailureCancels() {
+        ListPublisher publisher = new ListPublisher(List.of("a", "b", "c"));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> chain.serializerFor(publisher, null).process(broken, publisher), "write failure surfaces");
+        assertTrue(publisher.cancelled.get(), "subscription cancelled when the client is gone");
+        assertEquals(1, publisher.requested.get(), "nothing more requested");
+    }
+
+    @Test
+    public void testProcess_PublisherError() {
+        Flow.Publisher<Object> failing = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                subscriber.onError(new IllegalStateException("database gone"));
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        IOException e = assertThrows(IOException.class, () -> process(failing), "publisher error fails the response");
+        assertInstanceOf(IllegalStateException.class, e.getCause(), "with the error as cause");
+    }
+
+    private String process(Flow.Publisher<?> publisher) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        chain.serializerFor(publisher, null).process(output, publisher);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Publishes the items of a list, synchronously and only as requested.
+     */
+    private static final class ListPublisher implements Flow.Publisher<Object> {
+
+        private final List<?> items;
+        final AtomicLong requested = new AtomicLong();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        ListPublisher(List<?> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int next;
+
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    for (long i = 0; i < n && !cancelled.get(); i++) {
+                        if (next < items.size()) {
+                            subscriber.onNext(items.get(next++));
+                        } else {
+                            subscriber.onComplete();
+                            return;
+                        }
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package speck.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SequenceSerializerTest {
+
+    private final SerializerChain chain = new SerializerChain();
+
+    @Test
+    public void testProcess_JsonArray() throws IOException {
+        Stream<Object> values = Stream.of("a\"b", 1, 2.5, true, null, "line\nbreak");
+
+        assertEquals("[\"a\\\"b\",1,2.5,true,null,\"line\\nbreak\"]", process(values, "application/json"), "JSON literals and escaped strings");
+        assertEquals("[]", process(Stream.empty(), "application/json"), "empty array");
+    }
+
+    @Test
+    public void testProcess_Ndjson() throws IOException {
+        assertEquals("1\n2\n3\n", process(IntStream.rangeClosed(1, 3), "application/x-ndjson"), "one value per line");
+    }
+
+    @Test
+    public void testProcess_Csv() throws IOException {
+        List<Object> rows = List.of(new Object[]{"id", "name"},
+                                    List.of(1, "plain"),
+                                    Arrays.asList(2, null),
+                                    new Object[]{3, "with, comma and \"quotes\""});
+
+        assertEquals("id,name\r\n1,plain\r\n2,\r\n3,\"with, comma and \"\"quotes\"\"\"\r\n",
+                     process(rows.iterator(), "text/csv; charset=utf-8"), "RFC 4180 rows");
+    }
+
+    @Test
+    public void testSerializerFor_ChosenByContentType() {
+        assertInstanceOf(SequenceSerializer.class, chain.serializerFor(Stream.of(1), null), "Streams without Content-Type");
+        assertEquals("application/json", chain.contentType(Stream.of(1)), "are written as JSON arrays");
+        assertInstanceOf(SequenceSerializer.class, chain.serializerFor(List.of(1), "text/csv"), "Iterables with a sequence Content-Type");
+        assertInstanceOf(DefaultSerializer.class, chain.serializerFor(List.of(1), null), "Iterables without one keep their toString");
+        assertInstanceOf(DefaultSerializer.class, chain.serializerFor(List.of(1), "text/plain"), "or with another one");
+        assertTrue(chain.serializerFor(Stream.of(1), null).streams(Stream.of(1)), "sent in chunks");
+    }
+
+    @Test
+    public void testProcess_ElementsUseRegisteredSerializer() throws IOException {
+        chain.register(Point.class, "application/json", new Serializer() {
+            @Override
+            public boolean canProcess(Object element) {
+                return true;
+            }
+
+            @Override
+            public void process(OutputStream outputStream, Object element) throws IOException {
+                Point point = (Point) element;
+                outputStream.write(("{\"x\":" + point.x + "}").getBytes(StandardCharsets.UTF_8));
+            }
+        });
+
+        assertEquals("[{\"x\":1},\"s\",{\"x\":2}]", process(Stream.of(new Point(1), "s", new Point(2)), "application/json"), "registered JSON serializer");
+        assertEquals("{\"x\":1}\n", process(Stream.of(new Point(1)), "application/x-ndjson"), "also for NDJSON");
+        assertEquals("Point[x=1]\r\n", process(Stream.of(new Point(1)), "text/csv"), "not for CSV");
+    }
+
+    @Test
+    public void testProcess_ClosesStream() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+
+        process(Stream.of(1, 2).onClose(() -> closed.set(true)), "application/json");
+
+        assertTrue(closed.get(), "stream closed once written");
+    }
+
+    @Test
+    public void testProcess_ClosesStreamWhenClientGoesAway() {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger produced = new AtomicInteger();
+        Stream<Integer> infinite = Stream.iterate(0, i -> i + 1).peek(i -> produced.incrementAndGet())
+                .onClose(() -> closed.set(true));
+        OutputStream disconnected = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 100_000) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        assertThrows(IOException.class, () -> chain.serializerFor(infinite, "application/x-ndjson").process(disconnected, infinite), "write failure surfaces");
+        assertTrue(closed.get(), "stream closed when the client is gone");
+        assertTrue(produced.get() < 100_000, "elements are produced lazily, " + produced.get());
+    }
+
+    @Test
+    public void testProcess_ClosesCloseableIterator() throws IOException {
+        CloseableIterator iterator = new CloseableIterator(List.of("a", "b").iterator());
+
+        process(iterator, "application/x-ndjson");
+
+        assertTrue(iterator.closed, "AutoCloseable iterator closed once written");
+    }
+
+    @Test
+    public void testProcess_FlushesAtInterval() throws IOException {
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        chain.flushInterval(Duration.ZERO);
+        Stream<Integer> values = Stream.of(1, 2, 3);
+        chain.serializerFor(values, "application/x-ndjson").process(output, values);
+        assertEquals(3, flushes.get(), "zero interval flushes after every element");
+
+        flushes.set(0);
+        chain.flushInterval(Duration.ofHours(1));
+        values = Stream.of(1, 2, 3);
+        chain.serializerFor(values, "application/x-ndjson").process(output, values);
+        assertEquals(1, flushes.get(), "long interval flushes the first element only, the rest goes at the end of the response");
+
+        assertThrows(IllegalArgumentException.class, () -> chain.flushInterval(Duration.ofMillis(-1)), "negative interval");
+    }
+
+    @Test
+    public void testProcess_LargeStreamInBatches() throws IOException {
+        int[] writes = new int[1];
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writes[0]++;
+                super.write(b, off, len);
+            }
+        };
+        Stream<Integer> values = IntStream.range(0, 100_000).boxed();
+
+        chain.serializerFor(values, "application/x-ndjson").process(output, values);
+
+        assertEquals(100_000, output.toString(StandardCharsets.UTF_8).split("\n").length, "all elements written");
+        assertFalse(writes[0] > 1000, "elements are written in batches, not one by one: " + writes[0]);
+    }
+
+    private String process(Object sequence, String contentType) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        chain.serializerFor(sequence, contentType).process(output, sequence);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private record Point(int x) {
+    }
+
+    private static class CloseableIterator implements Iterator<String>, AutoCloseable {
+
+        private final Iterator<String> iterator;
+        boolean closed;
+
+        CloseableIterator(Iterator<String> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public String next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package speck.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SerializerChainTest {
+
+    private final SerializerChain chain = new SerializerChain();
+
+    @Test
+    public void testSerializerFor_BuiltIns() {
+        assertInstanceOf(BytesSerializer.class, chain.serializerFor(new byte[1], null), "byte[] goes to bytes");
+        assertInstanceOf(BytesSerializer.class, chain.serializerFor(ByteBuffer.allocateDirect(1), null), "subclass of ByteBuffer goes to bytes");
+        assertInstanceOf(BytesSerializer.class, chain.serializerFor(List.of(ByteBuffer.allocate(1)), null), "list of buffers goes to bytes");
+        assertInstanceOf(DefaultSerializer.class, chain.serializerFor(List.of("a"), null), "other lists fall back to toString");
+        assertInstanceOf(FileSerializer.class, chain.serializerFor(Path.of("a.txt"), null), "a Path implementation goes to files");
+        assertInstanceOf(CharSequenceSerializer.class, chain.serializerFor("hi", null), "strings go to text");
+        assertInstanceOf(DefaultSerializer.class, chain.serializerFor(null, null), "null goes to toString");
+    }
+
+    @Test
+    public void testRegister_TakesPrecedence() throws IOException {
+        chain.register(CharSequence.class, null, new Upper());
+
+        assertEquals("HI", process("hi"), "registered serializer wins over toString");
+        assertEquals("SB", process(new StringBuilder("sb")), "applies to subclasses");
+        assertEquals(2, chain.contentLength(new byte[2]), "built-ins still apply to other types");
+    }
+
+    @Test
+    public void testRegister_FirstRegisteredWins() throws IOException {
+        chain.register(String.class, null, new Upper());
+        chain.register(String.class, null, new Fixed("second"));
+
+        assertEquals("HI", process("hi"), "the first serializer that can process the element wins");
+    }
+
+    @Test
+    public void testRegister_CanProcessIsChecked() throws IOException {
+        chain.register(String.class, null, new Upper() {
+            @Override
+            public boolean canProcess(Object element) {
+                return ((String) element).startsWith("u");
+            }
+        });
+
+        assertEquals("UP", process("up"), "accepted element is processed by the registered serializer");
+        assertEquals("down", process("down"), "refused element falls back to the next serializer");
+    }
+
+    @Test
+    public void testRegister_ContentType() {
+        Serializer json = new Fixed("{}");
+        Serializer xml = new Fixed("<x/>");
+        chain.register(Record.class, "application/json", json);
+        chain.register(Record.class, "application/xml", xml);
+        Point point = new Point(1, 2);
+
+        assertEquals("application/json", chain.serializerFor(point, null).contentType(point), "without Content-Type the first registration applies and sets it");
+        assertEquals("{}", processed(chain.serializerFor(point, "Application/JSON; charset=utf-8"), point), "matches the media type ignoring case and parameters");
+        assertEquals("<x/>", processed(chain.serializerFor(point, "application/xml"), point), "picks the registration for the response media type");
+        assertInstanceOf(DefaultSerializer.class, chain.serializerFor(point, "text/plain"), "no registration for the media type falls back to the built-ins");
+    }
+
+    @Test
+    public void testClear_DropsRegistrations() throws IOException {
+        chain.register(String.class, null, new Upper());
+        chain.clear();
+
+        assertEquals("hi", process("hi"), "built-ins only after clear");
+    }
+
+    @Test
+    public void testRegister_NullArguments() {
+        assertThrows(IllegalArgumentException.class, () -> chain.register(null, null, new Upper()), "type is required");
+        assertThrows(IllegalArgumentException.class, () -> chain.register(String.class, null, null), "serializer is required");
+    }
+
+    @Test
+    public void testContentType_FromSerializer() {
+        assertEquals("text/plain", chain.contentType(Path.of("a.txt")), "file serializer tells the type from the name");
+        assertNull(chain.contentType("hi"), "text serializer can't tell");
+    }
+
+    private String process(Object element) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        chain.process(output, element);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String processed(Serializer serializer, Object element) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            serializer.process(output, element);
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private record Point(int x, int y) {
+    }
+
+    private static class Upper extends Serializer {
+
+        @Override
+        public boolean canProcess(Object element) {
+            return true;
+        }
+
+        @Override
+        public void process(OutputStream outputStream, Object element) throws IOException {
+            outputStream.write(element.toString().toUpperCase().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class Fixed extends Serializer {
+
+        private final String output;
+
+        Fixed(String output) {
+            this.output = output;
+        }
+
+        @Override
+        public boolean canProcess(Object element) {
+            return true;
+        }
+
+        @Override
+        public void process(OutputStream outputStream, Object element) throws IOException {
+            outputStream.write(output.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
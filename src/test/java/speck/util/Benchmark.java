@@ -0,0 +1,78 @@
+package speck.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures time and bytes allocated per operation, for benchmarks run from a main method rather than as unit
+ * tests. Results of the operations are kept, so that the JIT can't drop the work that produced them.
+ */
+public final class Benchmark {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile Object sink;
+
+    static {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private Benchmark() {
+        // hidden
+    }
+
+    /**
+     * Runs the operation the given number of times on the current thread and prints the cost of each run.
+     *
+     * @param name       the name printed with the results
+     * @param iterations how many times to run the operation
+     * @param operation  the operation
+     * @throws Exception if the operation fails
+     */
+    public static void measure(String name, int iterations, Callable<?> operation) throws Exception {
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = operation.call();
+        }
+        long elapsed = System.nanoTime() - start;
+        print(name, iterations, elapsed, THREADS.getCurrentThreadAllocatedBytes() - bytes);
+    }
+
+    /**
+     * Runs the operation the given number of times, each run on its own virtual thread as requests are, and prints
+     * the cost of each run, the virtual thread included.
+     *
+     * @param name       the name printed with the results
+     * @param iterations how many times to run the operation
+     * @param operation  the operation
+     * @throws Exception if the operation fails
+     */
+    public static void measureOnVirtualThreads(String name, int iterations, Callable<?> operation) throws Exception {
+        long bytes = THREADS.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> results = new ArrayList<>(iterations);
+            for (int i = 0; i < iterations; i++) {
+                results.add(executor.submit(operation));
+            }
+            for (Future<?> result : results) {
+                sink = result.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        print(name, iterations, elapsed, THREADS.getTotalThreadAllocatedBytes() - bytes);
+    }
+
+    private static void print(String name, int iterations, long elapsedNanos, long allocatedBytes) {
+        System.out.printf("%-24s %10.1f ns/op, %8d bytes/op%n",
+                          name, (double) elapsedNanos / iterations, allocatedBytes / iterations);
+    }
+}
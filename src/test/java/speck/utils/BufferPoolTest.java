@@ -0,0 +1,122 @@
+package speck.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferPoolTest {
+
+    @Test
+    public void testAcquire_RoundsUpToPooledSize() {
+        BufferPool pool = new BufferPool(4);
+
+        assertEquals(BufferPool.MIN_SIZE, pool.acquire(1).length, "small requests get the smallest size");
+        assertEquals(4096, pool.acquire(4096).length, "exact size");
+        assertEquals(8192, pool.acquire(4097).length, "next size up");
+        assertEquals(BufferPool.MAX_SIZE, pool.acquireChars(BufferPool.MAX_SIZE).length, "largest size");
+        assertEquals(BufferPool.MAX_SIZE + 1, pool.acquire(BufferPool.MAX_SIZE + 1).length, "larger requests are allocated as asked");
+    }
+
+    @Test
+    public void testRelease_BufferIsReused() {
+        BufferPool pool = new BufferPool(4);
+        byte[] bytes = pool.acquire(5000);
+        char[] chars = pool.acquireChars(5000);
+
+        pool.release(bytes);
+        pool.release(chars);
+
+        assertSame(bytes, pool.acquire(6000), "a released byte array is handed out again for the same size");
+        assertSame(chars, pool.acquireChars(8192), "a released char array is handed out again for the same size");
+        assertNotSame(bytes, pool.acquire(6000), "but only once");
+    }
+
+    @Test
+    public void testRelease_FootprintIsBounded() {
+        BufferPool pool = new BufferPool(2);
+        List<byte[]> buffers = List.of(pool.acquire(4096), pool.acquire(4096), pool.acquire(4096));
+
+        buffers.forEach(pool::release);
+
+        BufferPool.Stats stats = pool.stats();
+        assertEquals(3, stats.released(), "all released");
+        assertEquals(1, stats.discarded(), "one more than the size keeps is dropped");
+        assertEquals(2 * 4096, stats.pooledBytes(), "two buffers kept");
+    }
+
+    @Test
+    public void testRelease_IgnoresForeignArrays() {
+        BufferPool pool = new BufferPool(2);
+
+        pool.release((byte[]) null);
+        pool.release(new byte[3000]);
+        pool.release(new byte[2 * BufferPool.MAX_SIZE]);
+
+        assertEquals(0, pool.stats().released(), "null, odd sized and oversized arrays are not pooled");
+        assertEquals(0, pool.stats().pooledBytes(), "nothing kept");
+    }
+
+    @Test
+    public void testStats_Outstanding() {
+        BufferPool pool = new BufferPool(4);
+        byte[] first = pool.acquire(100);
+        pool.acquire(100);
+        pool.release(first);
+        pool.acquire(100);
+
+        BufferPool.Stats stats = pool.stats();
+        assertEquals(3, stats.acquired(), "acquired");
+        assertEquals(1, stats.reused(), "reused");
+        assertEquals(2, stats.outstanding(), "two buffers not returned");
+    }
+
+    @Test
+    public void testConstructor_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(0), "at least one buffer per size");
+    }
+
+    @Test
+    public void testAcquire_NeverSharedBetweenVirtualThreads() throws Exception {
+        BufferPool pool = new BufferPool(8);
+        Set<byte[]> inUse = ConcurrentHashMap.newKeySet();
+        AtomicInteger shared = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 200; task++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        byte[] buffer = pool.acquire(4096);
+                        if (!inUse.add(buffer)) {
+                            shared.incrementAndGet();
+                        }
+                        Thread.yield();
+                        inUse.remove(buffer);
+                        pool.release(buffer);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(0, shared.get(), "a buffer was handed to two borrowers at once");
+        assertEquals(0, pool.stats().outstanding(), "all returned");
+        assertTrue(pool.stats().reused() > 0, "buffers were reused");
+        assertTrue(pool.stats().pooledBytes() <= 8 * 4096, "footprint stays within the bound");
+    }
+}
@@ -37,4 +37,17 @@ public class MimeParseTest {
 
     }
 
+    @Test
+    public void testBestMatch_withParsedSupportedTypes() {
+
+        final String header = "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8";
+
+        List<MimeParse.ParseResults> supported = List.of(MimeParse.parse("application/xml"), MimeParse.parse("text/html"));
+
+        assertEquals("text/html", MimeParse.bestMatch(supported, header),
+            "bestMatch should give the same result when the supported mime types were parsed up front");
+        assertEquals("text/html", MimeParse.bestMatch(supported, header),
+            "parsed mime types should be reusable");
+    }
+
 }
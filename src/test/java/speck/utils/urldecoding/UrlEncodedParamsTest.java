@@ -0,0 +1,113 @@
+package speck.utils.urldecoding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UrlEncodedParamsTest {
+
+    @Test
+    public void testParse_GroupsValuesByName() {
+        UrlEncodedParams params = UrlEncodedParams.parse("id=1&name=fede&id=2&id=3");
+
+        assertEquals("1", params.value("id"), "first value");
+        assertArrayEquals(new String[]{"1", "2", "3"}, params.values("id"), "all values in order");
+        assertEquals(List.of("id", "name"), List.copyOf(params.names()), "names in order of first appearance");
+        assertNull(params.value("missing"), "missing name");
+        assertNull(params.values("missing"), "missing name has no values");
+    }
+
+    @Test
+    public void testParse_Decodes() {
+        UrlEncodedParams params = UrlEncodedParams.parse("full+name=Jos%C3%A9+P%C3%A9rez&q=a%26b%3Dc");
+
+        assertEquals("Jos\u00e9 P\u00e9rez", params.value("full name"), "names and values decoded");
+        assertEquals("a&b=c", params.value("q"), "encoded separators are part of the value");
+    }
+
+    @Test
+    public void testParse_MissingValues() {
+        UrlEncodedParams params = UrlEncodedParams.parse("flag&empty=&&=x&a=b=c");
+
+        assertTrue(params.names().contains("flag"), "name without '='");
+        assertNull(params.value("flag"), "has no value");
+        assertNull(params.value("empty"), "nor has an empty one");
+        assertArrayEquals(new String[]{null}, params.values("empty"), "but it is there");
+        assertTrue(params.names().contains("=x"), "a leading '=' is part of the name");
+        assertEquals("b=c", params.value("a"), "only the first '=' separates");
+        assertEquals(3 + 1, params.names().size(), "empty pairs are skipped");
+    }
+
+    @Test
+    public void testParse_Empty() {
+        assertTrue(UrlEncodedParams.parse(null).isEmpty(), "no query");
+        assertTrue(UrlEncodedParams.parse("").isEmpty(), "empty query");
+        assertSame(UrlEncodedParams.parse(null), UrlEncodedParams.parse(""), "shared when empty");
+    }
+
+    @Test
+    public void testValue_DecodedOnceWhenRead() {
+        UrlEncodedParams params = UrlEncodedParams.parse("a=%E2%82%AC&b=%zz");
+
+        assertSame(params.value("a"), params.value("a"), "decoded once and kept");
+        assertThrows(IllegalArgumentException.class, () -> params.value("b"), "malformed escapes fail when read");
+    }
+
+    @Test
+    public void testParse_Bytes() {
+        byte[] form = "name=Jos%C3%A9&note=caf%E9+au+lait&flag&name=x%2By".getBytes(StandardCharsets.US_ASCII);
+
+        UrlEncodedParams params = UrlEncodedParams.parse(form, StandardCharsets.UTF_8);
+        assertArrayEquals(new String[]{"Jos\u00e9", "x+y"}, params.values("name"), "decoded as UTF-8");
+        assertNull(params.value("flag"), "name without value");
+        assertEquals("caf\u00e9 au lait", UrlEncodedParams.parse(form, StandardCharsets.ISO_8859_1).value("note"), "or in the charset of the form");
+        assertTrue(UrlEncodedParams.parse(new byte[0], StandardCharsets.UTF_8).isEmpty(), "empty body");
+    }
+
+    @Test
+    public void testParse_BytesMalformed() {
+        UrlEncodedParams params = UrlEncodedParams.parse("a=%4&b=%zz&c=ok".getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8);
+
+        assertEquals("ok", params.value("c"), "only the fields read are decoded");
+        assertThrows(IllegalArgumentException.class, () -> params.value("a"), "incomplete escape");
+        assertThrows(IllegalArgumentException.class, () -> params.value("b"), "not hex");
+    }
+
+    @Test
+    public void testMerge_QueryBeforeForm() {
+        UrlEncodedParams query = UrlEncodedParams.parse("id=1&page=2");
+        UrlEncodedParams form = UrlEncodedParams.parse("name=fede&id=3".getBytes(StandardCharsets.US_ASCII), StandardCharsets.UTF_8);
+
+        UrlEncodedParams merged = UrlEncodedParams.merge(query, form);
+
+        assertEquals(List.of("id", "page", "name"), List.copyOf(merged.names()), "names of both");
+        assertArrayEquals(new String[]{"1", "3"}, merged.values("id"), "query values first");
+        assertEquals("fede", merged.value("name"), "form fields");
+        assertSame(query, UrlEncodedParams.merge(query, UrlEncodedParams.parse("")), "nothing to merge");
+        assertNull(query.value("name"), "the parts are left as they were");
+    }
+
+    @Test
+    public void testToMap() {
+        Map<String, String[]> map = UrlEncodedParams.parse("a=1&b=2&a=3").toMap();
+
+        assertEquals(List.of("a", "b"), List.copyOf(map.keySet()), "in order");
+        assertArrayEquals(new String[]{"1", "3"}, map.get("a"), "all values");
+    }
+
+    @Test
+    public void testSplitQuery_SameAsParse() {
+        Map<String, List<String>> split = UrlDecode.splitQuery("a=1&b=x+y&a=2");
+
+        assertEquals(Map.of("a", List.of("1", "2"), "b", List.of("x y")), split, "grouped and decoded");
+    }
+}